@@ -27,7 +27,6 @@ package com.mattunderscore.specky;
 import com.mattunderscore.specky.error.listeners.InternalSemanticErrorListener;
 import com.mattunderscore.specky.model.AbstractTypeDesc;
 import com.mattunderscore.specky.model.PropertyDesc;
-import com.mattunderscore.specky.model.generator.scope.EvaluateTemplate;
 import com.mattunderscore.specky.model.generator.scope.Scope;
 import com.mattunderscore.specky.model.generator.scope.SectionScopeResolver;
 import com.mattunderscore.specky.parser.Specky;
@@ -40,6 +39,7 @@ import org.antlr.v4.runtime.tree.TerminalNode;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 import static com.mattunderscore.specky.ParserUtils.toValue;
 import static java.util.Collections.emptyList;
@@ -131,7 +131,8 @@ public final class AbstractTypeListener extends SpeckyBaseListener {
     @Override
     public void exitTypeSpec(Specky.TypeSpecContext ctx) {
         final Scope scope = sectionScopeResolver.resolve(currentSection);
-        final EvaluateTemplate formatter = new EvaluateTemplate(scope.toTemplateContext(ctx.Identifier().getText()));
+        final String typeName = ctx.Identifier().getText();
+        final Function<String, String> formatter = template -> scope.evaluateTemplate(template, typeName);
         currentTypeDesc = currentTypeDesc
             .name(ctx.Identifier().getText())
             .author(scope.getAuthor())
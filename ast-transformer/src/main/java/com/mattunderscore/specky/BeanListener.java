@@ -34,6 +34,8 @@ import static java.util.stream.Collectors.toList;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 import org.antlr.v4.runtime.tree.TerminalNode;
 
@@ -41,7 +43,6 @@ import com.mattunderscore.specky.error.listeners.InternalSemanticErrorListener;
 import com.mattunderscore.specky.model.AbstractTypeDesc;
 import com.mattunderscore.specky.model.BeanDesc;
 import com.mattunderscore.specky.model.PropertyDesc;
-import com.mattunderscore.specky.model.generator.scope.EvaluateTemplate;
 import com.mattunderscore.specky.model.generator.scope.Scope;
 import com.mattunderscore.specky.model.generator.scope.SectionScopeResolver;
 import com.mattunderscore.specky.parser.Specky;
@@ -60,6 +61,7 @@ public final class BeanListener extends SpeckyBaseListener {
     private final InternalSemanticErrorListener semanticErrorListener;
     private final List<BeanDesc> valueDescs = new ArrayList<>();
     private final ValueParser valueParser;
+    private final Executor propertyResolution;
 
     private Specky.ImplementationSpecContext implementationSpecContext;
     private BeanDesc.Builder currentTypeDesc = BeanDesc.builder();
@@ -76,10 +78,25 @@ public final class BeanListener extends SpeckyBaseListener {
             InternalSemanticErrorListener semanticErrorListener,
             ValueParser valueParser) {
 
+        this(sectionScopeResolver, abstractTypes, semanticErrorListener, valueParser, Runnable::run);
+    }
+
+    /**
+     * Constructor. The properties of each type are resolved by tasks passed to the executor. This allows the
+     * abstract types to be provided after the walk, as long as they are available when the tasks run.
+     */
+    public BeanListener(
+            SectionScopeResolver sectionScopeResolver,
+            Map<String, AbstractTypeDesc> abstractTypes,
+            InternalSemanticErrorListener semanticErrorListener,
+            ValueParser valueParser,
+            Executor propertyResolution) {
+
         this.sectionScopeResolver = sectionScopeResolver;
         this.abstractTypes = abstractTypes;
         this.semanticErrorListener = semanticErrorListener;
         this.valueParser = valueParser;
+        this.propertyResolution = propertyResolution;
     }
 
     /**
@@ -131,6 +148,14 @@ public final class BeanListener extends SpeckyBaseListener {
             return;
         }
 
+        if (ctx.CACHED_HASH() != null) {
+            semanticErrorListener.onSemanticError("Beans are mutable so cannot cache their hash code", ctx);
+        }
+
+        if (ctx.CACHED_STRING() != null) {
+            semanticErrorListener.onSemanticError("Beans are mutable so cannot cache their string", ctx);
+        }
+
         currentTypeDesc = currentTypeDesc
             .constructionMethod(toConstructionDesc(ctx))
             .withModification(withModifications(ctx));
@@ -153,9 +178,8 @@ public final class BeanListener extends SpeckyBaseListener {
         }
 
         final Scope scope = sectionScopeResolver.resolve(currentSection);
-        final EvaluateTemplate formatter = new EvaluateTemplate(scope.toTemplateContext(ctx.Identifier().getText()));
-
-        final List<PropertyDesc> allProperties = propertyResolver.resolveProperties(ctx, currentSupertypes, scope);
+        final String typeName = ctx.Identifier().getText();
+        final Function<String, String> formatter = template -> scope.evaluateTemplate(template, typeName);
 
         currentTypeDesc = currentTypeDesc
             .name(ctx.Identifier().getText())
@@ -192,10 +216,15 @@ public final class BeanListener extends SpeckyBaseListener {
                     formatter.apply("Bean type ${type}.\n\nAuto-generated from specification ${fileName}.")))
             .ifThen(
                 ctx.STRING_LITERAL() != null,
-                builder -> builder.description(formatter.apply(toValue(ctx.STRING_LITERAL()))))
-            .properties(allProperties);
-
-        valueDescs.add(currentTypeDesc.build());
+                builder -> builder.description(formatter.apply(toValue(ctx.STRING_LITERAL()))));
+
+        final BeanDesc.Builder typeDesc = currentTypeDesc;
+        final PropertyResolver resolver = propertyResolver;
+        final List<String> supertypes = currentSupertypes;
+        propertyResolution.execute(() -> {
+            final List<PropertyDesc> allProperties = resolver.resolveProperties(ctx, supertypes, scope);
+            valueDescs.add(typeDesc.properties(allProperties).build());
+        });
     }
 
     private boolean isBean() {
@@ -0,0 +1,125 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+
+import com.mattunderscore.specky.error.listeners.SemanticErrorListener;
+import com.mattunderscore.specky.error.listeners.SyntaxErrorListener;
+import com.mattunderscore.specky.type.resolver.MutableTypeResolver;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Records the errors and type registrations of parsing a single file so they can be replayed later. Allows files to
+ * be parsed concurrently while reporting errors and registering types in the same order as parsing them one at a
+ * time.
+ *
+ * @author Matt Champion 14/10/2017
+ */
+@NotThreadSafe
+/*package*/ final class DeferredParseEvents implements SemanticErrorListener, SyntaxErrorListener, MutableTypeResolver {
+    private final List<Runnable> events = new ArrayList<>();
+    private final SemanticErrorListener semanticErrorListener;
+    private final SyntaxErrorListener syntaxErrorListener;
+    private final MutableTypeResolver typeResolver;
+    private boolean replaying;
+
+    /**
+     * Constructor.
+     */
+    DeferredParseEvents(
+            SemanticErrorListener semanticErrorListener,
+            SyntaxErrorListener syntaxErrorListener,
+            MutableTypeResolver typeResolver) {
+
+        this.semanticErrorListener = semanticErrorListener;
+        this.syntaxErrorListener = syntaxErrorListener;
+        this.typeResolver = typeResolver;
+    }
+
+    @Override
+    public void onSemanticError(Path file, String message, ParserRuleContext ruleContext) {
+        if (replaying) {
+            semanticErrorListener.onSemanticError(file, message, ruleContext);
+        }
+        else {
+            events.add(() -> semanticErrorListener.onSemanticError(file, message, ruleContext));
+        }
+    }
+
+    @Override
+    public void syntaxError(
+            Path filePath,
+            Recognizer<?, ?> recognizer,
+            Object offendingSymbol,
+            int line,
+            int charPositionInLine,
+            String msg,
+            RecognitionException e) {
+
+        events.add(() -> syntaxErrorListener
+            .syntaxError(filePath, recognizer, offendingSymbol, line, charPositionInLine, msg, e));
+    }
+
+    @Override
+    public CompletableFuture<Void> registerTypeName(String packageName, String typeName) {
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        events.add(() -> typeResolver
+            .registerTypeName(packageName, typeName)
+            .whenComplete((value, t) -> {
+                if (t == null) {
+                    result.complete(value);
+                }
+                else {
+                    result.completeExceptionally(t);
+                }
+            }));
+        return result;
+    }
+
+    @Override
+    public Optional<String> resolveType(String name) {
+        return typeResolver.resolveType(name);
+    }
+
+    /**
+     * Replay the recorded events in the order they happened. Semantic errors raised while replaying, such as a type
+     * that cannot be registered, are passed on immediately.
+     */
+    void replay() {
+        replaying = true;
+        events.forEach(Runnable::run);
+        events.clear();
+    }
+}
@@ -0,0 +1,297 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.unmodifiableSet;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Graph of how changes to a specification propagate. Each edge leads from a node to a node affected by changes to
+ * it: from a file to its sections, from a section to the types it declares and the default values it imports, from a
+ * type to the types that extend it and from an imported default value to the types with properties that use it.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+@Immutable
+public final class DependencyGraph {
+    /**
+     * A graph without nodes.
+     */
+    public static final DependencyGraph EMPTY = new DependencyGraph(new HashMap<>(), new HashMap<>());
+
+    private final Map<Node, Set<Node>> dependents;
+    private final Map<Node, Set<Node>> dependencies;
+
+    private DependencyGraph(Map<Node, Set<Node>> dependents, Map<Node, Set<Node>> dependencies) {
+        this.dependents = dependents;
+        this.dependencies = dependencies;
+    }
+
+    /**
+     * @return the nodes of the graph
+     */
+    public Set<Node> getNodes() {
+        final Set<Node> nodes = new HashSet<>(dependents.keySet());
+        nodes.addAll(dependencies.keySet());
+        return unmodifiableSet(nodes);
+    }
+
+    /**
+     * @return the nodes directly affected by changes to the node
+     */
+    public Set<Node> getDependents(Node node) {
+        return unmodifiableSet(dependents.getOrDefault(node, emptySet()));
+    }
+
+    /**
+     * @return the nodes that directly affect the node
+     */
+    public Set<Node> getDependencies(Node node) {
+        return unmodifiableSet(dependencies.getOrDefault(node, emptySet()));
+    }
+
+    /**
+     * @return the nodes transitively affected by changes to the nodes, including the nodes
+     */
+    public Set<Node> getAffected(Collection<Node> changed) {
+        return traverse(changed, dependents);
+    }
+
+    /**
+     * @return the nodes that transitively affect the nodes, including the nodes
+     */
+    public Set<Node> getAffecting(Collection<Node> nodes) {
+        return traverse(nodes, dependencies);
+    }
+
+    /**
+     * @return the fully qualified names of the types transitively affected by changes to the files
+     */
+    public Set<String> getAffectedTypes(Collection<Path> changedFiles) {
+        final Set<Node> files = new HashSet<>();
+        changedFiles.forEach(file -> files.add(Node.file(file)));
+
+        final Set<String> types = new HashSet<>();
+        for (final Node node : getAffected(files)) {
+            if (node.getKind() == Kind.TYPE) {
+                types.add(node.getName());
+            }
+        }
+        return unmodifiableSet(types);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        dependents.forEach((node, nodeDependents) -> nodeDependents.forEach(dependent -> builder
+            .append(node)
+            .append(" -> ")
+            .append(dependent)
+            .append('\n')));
+        return builder.toString();
+    }
+
+    /**
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private static Set<Node> traverse(Collection<Node> start, Map<Node, Set<Node>> edges) {
+        final Set<Node> visited = new LinkedHashSet<>(start);
+        final Deque<Node> pending = new ArrayDeque<>(start);
+        while (!pending.isEmpty()) {
+            for (final Node next : edges.getOrDefault(pending.pop(), emptySet())) {
+                if (visited.add(next)) {
+                    pending.push(next);
+                }
+            }
+        }
+        return unmodifiableSet(visited);
+    }
+
+    /**
+     * The kinds of node.
+     */
+    public enum Kind {
+        /**
+         * A specification file, named by its path.
+         */
+        FILE,
+        /**
+         * A section of a specification file, named by the path of the file and the name of the section.
+         */
+        SECTION,
+        /**
+         * A type, named by its fully qualified name.
+         */
+        TYPE,
+        /**
+         * A default value imported by a section, named by the section and the fully qualified name of its type.
+         */
+        VALUE
+    }
+
+    /**
+     * A node of the graph.
+     */
+    @Immutable
+    public static final class Node {
+        private final Kind kind;
+        private final String name;
+
+        /**
+         * Constructor.
+         */
+        public Node(Kind kind, String name) {
+            this.kind = kind;
+            this.name = name;
+        }
+
+        /**
+         * @return the node for a file
+         */
+        public static Node file(Path file) {
+            return new Node(Kind.FILE, file.toString());
+        }
+
+        /**
+         * @return the node for a section of a file, the default section has no name
+         */
+        public static Node section(Path file, String sectionName) {
+            return new Node(Kind.SECTION, file + "#" + (sectionName == null ? "" : sectionName));
+        }
+
+        /**
+         * @return the node for a type
+         */
+        public static Node type(String typeName) {
+            return new Node(Kind.TYPE, typeName);
+        }
+
+        /**
+         * @return the node for a default value imported by a section
+         */
+        public static Node value(Node section, String typeName) {
+            return new Node(Kind.VALUE, section.getName() + "#" + typeName);
+        }
+
+        /**
+         * @return the kind of node
+         */
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * @return the name of the node
+         */
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            else if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            final Node node = (Node) o;
+            return kind == node.kind && name.equals(node.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * kind.hashCode() + name.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return kind + " " + name;
+        }
+    }
+
+    /**
+     * Builder for {@link DependencyGraph}s.
+     */
+    @NotThreadSafe
+    public static final class Builder {
+        private Map<Node, Set<Node>> dependents = new HashMap<>();
+        private Map<Node, Set<Node>> dependencies = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Add an edge from a node to a node affected by changes to it.
+         */
+        public Builder addEdge(Node node, Node dependent) {
+            dependents.computeIfAbsent(node, key -> new LinkedHashSet<>()).add(dependent);
+            dependencies.computeIfAbsent(dependent, key -> new LinkedHashSet<>()).add(node);
+            return this;
+        }
+
+        /**
+         * Add the edges of another graph.
+         */
+        public Builder addGraph(DependencyGraph graph) {
+            graph.dependents.forEach((node, nodeDependents) -> nodeDependents.forEach(
+                dependent -> addEdge(node, dependent)));
+            return this;
+        }
+
+        /**
+         * @return the graph
+         * @throws IllegalStateException if the graph has already been built
+         */
+        public DependencyGraph build() {
+            if (dependents == null) {
+                throw new IllegalStateException("The graph has already been built");
+            }
+
+            final DependencyGraph graph = new DependencyGraph(dependents, dependencies);
+            dependents = null;
+            dependencies = null;
+            return graph;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static com.mattunderscore.specky.ParserUtils.toValue;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import com.mattunderscore.specky.DependencyGraph.Node;
+import com.mattunderscore.specky.model.generator.scope.Scope;
+import com.mattunderscore.specky.model.generator.scope.SectionScopeResolver;
+import com.mattunderscore.specky.parser.Specky;
+import com.mattunderscore.specky.parser.SpeckyBaseListener;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * DSL AST listener for the dependencies of a file. Must be walked after the section scopes are complete.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+@NotThreadSafe
+public final class DependencyListener extends SpeckyBaseListener {
+    private final SectionScopeResolver sectionScopeResolver;
+    private final Path path;
+    private final Node file;
+    private final DependencyGraph.Builder graph = DependencyGraph.builder();
+    private final Map<String, Node> importedValues = new HashMap<>();
+    private String currentSectionName;
+    private Node currentSection;
+
+    /**
+     * Constructor.
+     */
+    public DependencyListener(SectionScopeResolver sectionScopeResolver, Path file) {
+        this.sectionScopeResolver = sectionScopeResolver;
+        this.path = file;
+        this.file = Node.file(file);
+    }
+
+    /**
+     * @return the dependencies of the file
+     */
+    public DependencyGraph getDependencies() {
+        return graph.build();
+    }
+
+    @Override
+    public void enterDefaultSectionDeclaration(Specky.DefaultSectionDeclarationContext ctx) {
+        enterSection(null);
+    }
+
+    @Override
+    public void enterSectionDeclaration(Specky.SectionDeclarationContext ctx) {
+        enterSection(toValue(ctx.string_value()));
+    }
+
+    @Override
+    public void exitSingleImport(Specky.SingleImportContext ctx) {
+        if (ctx.default_value() != null) {
+            final String typeName = ctx.qualifiedName().getText();
+            final Node value = Node.value(currentSection, typeName);
+            graph.addEdge(currentSection, value);
+            importedValues.put(typeName, value);
+        }
+    }
+
+    @Override
+    public void exitTypeSpec(Specky.TypeSpecContext ctx) {
+        exitType(ctx.Identifier(), ctx.supertypes(), ctx.props());
+    }
+
+    @Override
+    public void exitImplementationSpec(Specky.ImplementationSpecContext ctx) {
+        exitType(ctx.Identifier(), ctx.supertypes(), ctx.props());
+    }
+
+    private void enterSection(String sectionName) {
+        currentSectionName = sectionName;
+        currentSection = Node.section(path, sectionName);
+        importedValues.clear();
+        graph.addEdge(file, currentSection);
+    }
+
+    private void exitType(TerminalNode identifier, Specky.SupertypesContext supertypes, Specky.PropsContext props) {
+        final Scope scope = sectionScopeResolver.resolve(currentSectionName);
+        final Node type = Node.type(scope.getPackage() + "." + identifier.getText());
+        graph.addEdge(currentSection, type);
+
+        if (supertypes != null) {
+            supertypes
+                .Identifier()
+                .forEach(supertype -> scope
+                    .resolveType(supertype.getText())
+                    .ifPresent(typeName -> graph.addEdge(Node.type(typeName), type)));
+        }
+
+        if (props != null) {
+            props
+                .property()
+                .stream()
+                .filter(property -> property.default_value() == null)
+                .map(property -> scope.resolveType(property.Identifier().getText(), property.OPTIONAL() != null))
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .map(importedValues::get)
+                .filter(Objects::nonNull)
+                .forEach(value -> graph.addEdge(value, type));
+
+            // The code generated for a type depends on the types of its properties, for example nested
+            // implementations are appended by toString without creating a string for them
+            props
+                .property()
+                .stream()
+                .map(property -> scope.resolveType(property.Identifier().getText()))
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .map(Node::type)
+                .filter(propertyType -> !propertyType.equals(type))
+                .forEach(propertyType -> graph.addEdge(propertyType, type));
+        }
+    }
+}
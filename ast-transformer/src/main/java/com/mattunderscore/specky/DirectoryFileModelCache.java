@@ -0,0 +1,135 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import com.mattunderscore.specky.context.file.FileContext;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * {@link FileModelCache} that stores each model in a file of a directory. The models are keyed by a hash of the path
+ * and content of the file. Entries that cannot be read are treated as missing. The entries that were not used can be
+ * deleted once the files have been built.
+ *
+ * @author Matt Champion 15/10/2017
+ */
+@ThreadSafe
+public final class DirectoryFileModelCache implements FileModelCache {
+    private final Path directory;
+    private final String salt;
+    private final Set<String> usedKeys = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor.
+     * @param directory the directory to store the models in
+     * @param salt included in the keys, for example the version of the tool that resolved the models
+     */
+    public DirectoryFileModelCache(Path directory, String salt) {
+        this.directory = directory;
+        this.salt = salt;
+    }
+
+    @Override
+    public Optional<FileModel> get(FileContext fileContext) {
+        final String key = key(fileContext);
+        usedKeys.add(key);
+        final Path entry = directory.resolve(key);
+        if (!Files.isRegularFile(entry)) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(FileModelCodec.decode(Files.readAllBytes(entry)));
+        }
+        catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void put(FileContext fileContext, FileModel fileModel) {
+        final byte[] bytes;
+        try {
+            bytes = FileModelCodec.encode(fileModel);
+        }
+        catch (IllegalArgumentException e) {
+            // The model cannot be cached
+            return;
+        }
+
+        final String key = key(fileContext);
+        usedKeys.add(key);
+        try {
+            Files.createDirectories(directory);
+            final Path temporaryFile = Files.createTempFile(directory, key, ".tmp");
+            Files.write(temporaryFile, bytes);
+            Files.move(temporaryFile, directory.resolve(key), REPLACE_EXISTING, ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            // The cache is only an optimisation, the next build will parse the file again
+        }
+    }
+
+    /**
+     * Delete the entries that have not been read or written by this cache. After a build this removes the entries of
+     * files that have changed or been removed and the entries of other versions.
+     */
+    public void deleteUnusedEntries() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        try (Stream<Path> entries = Files.list(directory)) {
+            entries
+                .filter(entry -> !usedKeys.contains(entry.getFileName().toString()))
+                .forEach(entry -> {
+                    try {
+                        Files.deleteIfExists(entry);
+                    }
+                    catch (IOException e) {
+                        // The entry will be deleted by a later build
+                    }
+                });
+        }
+        catch (IOException e) {
+            // The cache is only an optimisation, the entries will be deleted by a later build
+        }
+    }
+
+    private String key(FileContext fileContext) {
+        return FileContentHash.hash(salt + '\0' + fileContext.getFile() + '\0', fileContext);
+    }
+}
@@ -0,0 +1,60 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+import com.mattunderscore.specky.context.file.FileContext;
+
+/**
+ * Hashes of the content of files. Streams that are a {@link FileContentStream} are hashed from the digest of the raw
+ * bytes they hold, other streams are hashed from their characters.
+ *
+ * @author Matt Champion 18/10/2017
+ */
+/*package*/ final class FileContentHash {
+    private FileContentHash() {
+    }
+
+    /**
+     * @return the hash of the prefix and the content of the file as a hexadecimal string
+     */
+    static String hash(String prefix, FileContext fileContext) {
+        final MessageDigest digest = FileModelCodec.newDigest();
+        digest.update(prefix.getBytes(StandardCharsets.UTF_8));
+        final ANTLRInputStream stream = fileContext.getAntlrStream();
+        if (stream instanceof FileContentStream) {
+            digest.update(((FileContentStream) stream).getContentDigest());
+        }
+        else {
+            digest.update(stream.getText(Interval.of(0, stream.size() - 1)).getBytes(StandardCharsets.UTF_8));
+        }
+        return FileModelCodec.toHex(digest.digest());
+    }
+}
@@ -0,0 +1,113 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static java.util.Collections.unmodifiableList;
+
+import java.util.List;
+
+import com.mattunderscore.specky.model.AbstractTypeDesc;
+import com.mattunderscore.specky.model.ImplementationDesc;
+
+import net.jcip.annotations.Immutable;
+
+/**
+ * The contribution of a single file to the {@link com.mattunderscore.specky.model.SpecDesc}. The abstract types and
+ * implementations depend on the types declared by other files, so the model records the type names it resolved and
+ * is only valid when they resolve to the same types.
+ *
+ * @author Matt Champion 15/10/2017
+ */
+@Immutable
+public final class FileModel {
+    private final List<String> typeNames;
+    private final List<AbstractTypeDesc> abstractTypes;
+    private final List<ImplementationDesc> implementations;
+    private final DependencyGraph dependencies;
+    private final List<String> typeReferences;
+    private final String abstractTypeEnvironment;
+
+    /**
+     * Constructor.
+     */
+    public FileModel(
+            List<String> typeNames,
+            List<AbstractTypeDesc> abstractTypes,
+            List<ImplementationDesc> implementations,
+            DependencyGraph dependencies,
+            List<String> typeReferences,
+            String abstractTypeEnvironment) {
+
+        this.typeNames = unmodifiableList(typeNames);
+        this.abstractTypes = unmodifiableList(abstractTypes);
+        this.implementations = unmodifiableList(implementations);
+        this.dependencies = dependencies;
+        this.typeReferences = unmodifiableList(typeReferences);
+        this.abstractTypeEnvironment = abstractTypeEnvironment;
+    }
+
+    /**
+     * @return the fully qualified names of the types declared by the file
+     */
+    public List<String> getTypeNames() {
+        return typeNames;
+    }
+
+    /**
+     * @return the abstract types of the file
+     */
+    public List<AbstractTypeDesc> getAbstractTypes() {
+        return abstractTypes;
+    }
+
+    /**
+     * @return the implementations of the file
+     */
+    public List<ImplementationDesc> getImplementations() {
+        return implementations;
+    }
+
+    /**
+     * @return the dependencies of the sections and types of the file
+     */
+    public DependencyGraph getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * @return the type names resolved by the file and the types they resolved to, as {@code name=type} with an empty
+     * type for names that were not resolved
+     */
+    public List<String> getTypeReferences() {
+        return typeReferences;
+    }
+
+    /**
+     * @return the hash of the abstract types the types of the file depended on when the model was resolved
+     */
+    public String getAbstractTypeEnvironment() {
+        return abstractTypeEnvironment;
+    }
+}
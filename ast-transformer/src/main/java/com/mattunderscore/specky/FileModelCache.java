@@ -0,0 +1,60 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import java.util.Optional;
+
+import com.mattunderscore.specky.context.file.FileContext;
+
+/**
+ * Cache of the {@link FileModel}s of files. Allows unchanged files to be used without parsing them again.
+ *
+ * @author Matt Champion 15/10/2017
+ */
+public interface FileModelCache {
+    /**
+     * A cache that stores nothing.
+     */
+    FileModelCache NONE = new FileModelCache() {
+        @Override
+        public Optional<FileModel> get(FileContext fileContext) {
+            return Optional.empty();
+        }
+
+        @Override
+        public void put(FileContext fileContext, FileModel fileModel) {
+        }
+    };
+
+    /**
+     * @return the model of the file if the cache contains one for the current content of the file
+     */
+    Optional<FileModel> get(FileContext fileContext);
+
+    /**
+     * Store the model of the file against its current content.
+     */
+    void put(FileContext fileContext, FileModel fileModel);
+}
@@ -0,0 +1,619 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.mattunderscore.specky.constraint.model.ConstraintOperator;
+import com.mattunderscore.specky.constraint.model.NFConjoinedDisjointPredicates;
+import com.mattunderscore.specky.constraint.model.NFDisjointPredicates;
+import com.mattunderscore.specky.constraint.model.PredicateDesc;
+import com.mattunderscore.specky.constraint.model.SubjectModifier;
+import com.mattunderscore.specky.literal.model.ComplexLiteral;
+import com.mattunderscore.specky.literal.model.ConstantLiteral;
+import com.mattunderscore.specky.literal.model.IntegerLiteral;
+import com.mattunderscore.specky.literal.model.LiteralDesc;
+import com.mattunderscore.specky.literal.model.NamedComplexLiteral;
+import com.mattunderscore.specky.literal.model.RealLiteral;
+import com.mattunderscore.specky.literal.model.StringLiteral;
+import com.mattunderscore.specky.literal.model.UnstructuredLiteral;
+import com.mattunderscore.specky.model.AbstractTypeDesc;
+import com.mattunderscore.specky.model.BeanDesc;
+import com.mattunderscore.specky.model.ConstructionMethod;
+import com.mattunderscore.specky.model.ImplementationDesc;
+import com.mattunderscore.specky.model.PropertyDesc;
+import com.mattunderscore.specky.model.TypeDesc;
+import com.mattunderscore.specky.model.ValueDesc;
+
+/**
+ * Binary encoding of {@link FileModel}s.
+ *
+ * @author Matt Champion 15/10/2017
+ */
+/*package*/ final class FileModelCodec {
+    private static final int MAGIC = 0x53504543;
+    private static final int VERSION = 6;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final byte VALUE = 0;
+    private static final byte BEAN = 1;
+    private static final byte NO_LITERAL = 0;
+    private static final byte UNSTRUCTURED_LITERAL = 1;
+    private static final byte CONSTANT_LITERAL = 2;
+    private static final byte INTEGER_LITERAL = 3;
+    private static final byte REAL_LITERAL = 4;
+    private static final byte STRING_LITERAL = 5;
+    private static final byte COMPLEX_LITERAL = 6;
+    private static final byte NAMED_COMPLEX_LITERAL = 7;
+
+    private FileModelCodec() {
+    }
+
+    /**
+     * @return the encoded file model
+     * @throws IllegalArgumentException if the model contains a type that cannot be encoded
+     */
+    static byte[] encode(FileModel fileModel) {
+        return encode(output -> {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            writeStrings(output, fileModel.getTypeNames());
+            writeStrings(output, fileModel.getTypeReferences());
+            writeString(output, fileModel.getAbstractTypeEnvironment());
+            output.writeInt(fileModel.getAbstractTypes().size());
+            for (final AbstractTypeDesc abstractType : fileModel.getAbstractTypes()) {
+                writeType(output, abstractType);
+            }
+            output.writeInt(fileModel.getImplementations().size());
+            for (final ImplementationDesc implementation : fileModel.getImplementations()) {
+                writeImplementation(output, implementation);
+            }
+            writeDependencies(output, fileModel.getDependencies());
+        });
+    }
+
+    /**
+     * @return the encoded abstract types
+     */
+    static byte[] encodeAbstractTypes(List<AbstractTypeDesc> abstractTypes) {
+        return encode(output -> {
+            output.writeInt(abstractTypes.size());
+            for (final AbstractTypeDesc abstractType : abstractTypes) {
+                writeType(output, abstractType);
+            }
+        });
+    }
+
+    /**
+     * @return the decoded file model
+     * @throws IOException if the bytes are not an encoded file model of the current version
+     */
+    static FileModel decode(byte[] bytes) throws IOException {
+        final DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+            throw new IOException("Not a file model of the current version");
+        }
+
+        final List<String> typeNames = readStrings(input);
+        final List<String> typeReferences = readStrings(input);
+        final String abstractTypeEnvironment = readString(input);
+        final int abstractTypeCount = input.readInt();
+        final List<AbstractTypeDesc> abstractTypes = new ArrayList<>(abstractTypeCount);
+        for (int i = 0; i < abstractTypeCount; i++) {
+            abstractTypes.add(readAbstractType(input));
+        }
+        final int implementationCount = input.readInt();
+        final List<ImplementationDesc> implementations = new ArrayList<>(implementationCount);
+        for (int i = 0; i < implementationCount; i++) {
+            implementations.add(readImplementation(input));
+        }
+        final DependencyGraph dependencies = readDependencies(input);
+        if (input.available() > 0) {
+            throw new IOException("Unexpected data after the file model");
+        }
+
+        return new FileModel(
+            typeNames,
+            abstractTypes,
+            implementations,
+            dependencies,
+            typeReferences,
+            abstractTypeEnvironment);
+    }
+
+    /**
+     * @return the SHA-256 hash of the bytes as a hexadecimal string
+     */
+    static String hash(byte[] bytes) {
+        return toHex(newDigest().digest(bytes));
+    }
+
+    /**
+     * @return a new SHA-256 digest
+     */
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * @return the hash as a hexadecimal string
+     */
+    static String toHex(byte[] hash) {
+        final char[] chars = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(hash[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX_DIGITS[hash[i] & 0xf];
+        }
+        return new String(chars);
+    }
+
+    private static byte[] encode(Encoder encoder) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            encoder.encode(output);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Failed to write to memory", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeImplementation(DataOutputStream output, ImplementationDesc implementation)
+            throws IOException {
+
+        if (implementation instanceof ValueDesc) {
+            output.writeByte(VALUE);
+        }
+        else if (implementation instanceof BeanDesc) {
+            output.writeByte(BEAN);
+        }
+        else {
+            throw new IllegalArgumentException("Unsupported implementation " + implementation.getClass());
+        }
+        writeType(output, implementation);
+        writeEnum(output, implementation.getConstructionMethod());
+        output.writeBoolean(implementation.isWithModification());
+        output.writeBoolean(implementation.isCachedHash());
+        output.writeBoolean(implementation.isCachedString());
+    }
+
+    private static void writeType(DataOutputStream output, TypeDesc type) throws IOException {
+        writeString(output, type.getLicence());
+        writeString(output, type.getAuthor());
+        writeString(output, type.getPackageName());
+        writeString(output, type.getName());
+        writeProperties(output, type.getProperties());
+        writeStrings(output, type.getSupertypes());
+        writeString(output, type.getDescription());
+    }
+
+    private static void writeProperties(DataOutputStream output, List<PropertyDesc> properties) throws IOException {
+        if (properties == null) {
+            output.writeInt(-1);
+            return;
+        }
+
+        output.writeInt(properties.size());
+        for (final PropertyDesc property : properties) {
+            writeString(output, property.getName());
+            writeString(output, property.getType());
+            writeStrings(output, property.getTypeParameters());
+            output.writeBoolean(property.isOptional());
+            output.writeBoolean(property.isOverride());
+            writeLiteral(output, property.getDefaultValue());
+            writeConstraint(output, property.getConstraint());
+            writeString(output, property.getDescription());
+        }
+    }
+
+    private static void writeLiteral(DataOutputStream output, LiteralDesc literal) throws IOException {
+        if (literal == null) {
+            output.writeByte(NO_LITERAL);
+        }
+        else if (literal instanceof UnstructuredLiteral) {
+            output.writeByte(UNSTRUCTURED_LITERAL);
+            writeString(output, ((UnstructuredLiteral) literal).getLiteral());
+        }
+        else if (literal instanceof ConstantLiteral) {
+            final ConstantLiteral constantLiteral = (ConstantLiteral) literal;
+            output.writeByte(CONSTANT_LITERAL);
+            writeString(output, constantLiteral.getTypeName());
+            writeString(output, constantLiteral.getConstant());
+        }
+        else if (literal instanceof IntegerLiteral) {
+            output.writeByte(INTEGER_LITERAL);
+            writeString(output, ((IntegerLiteral) literal).getIntegerLiteral());
+        }
+        else if (literal instanceof RealLiteral) {
+            output.writeByte(REAL_LITERAL);
+            writeString(output, ((RealLiteral) literal).getRealLiteral());
+        }
+        else if (literal instanceof StringLiteral) {
+            output.writeByte(STRING_LITERAL);
+            writeString(output, ((StringLiteral) literal).getStringLiteral());
+        }
+        else if (literal instanceof ComplexLiteral) {
+            final ComplexLiteral complexLiteral = (ComplexLiteral) literal;
+            output.writeByte(COMPLEX_LITERAL);
+            writeString(output, complexLiteral.getTypeName());
+            writeLiterals(output, complexLiteral.getSubvalues());
+            writeEnum(output, complexLiteral.getConstructionMethod());
+        }
+        else if (literal instanceof NamedComplexLiteral) {
+            final NamedComplexLiteral namedComplexLiteral = (NamedComplexLiteral) literal;
+            output.writeByte(NAMED_COMPLEX_LITERAL);
+            writeString(output, namedComplexLiteral.getTypeName());
+            writeStrings(output, namedComplexLiteral.getNames());
+            writeLiterals(output, namedComplexLiteral.getSubvalues());
+            writeEnum(output, namedComplexLiteral.getConstructionMethod());
+        }
+        else {
+            throw new IllegalArgumentException("Unsupported literal " + literal.getClass());
+        }
+    }
+
+    private static void writeLiterals(DataOutputStream output, List<LiteralDesc> literals) throws IOException {
+        if (literals == null) {
+            output.writeInt(-1);
+            return;
+        }
+
+        output.writeInt(literals.size());
+        for (final LiteralDesc literal : literals) {
+            writeLiteral(output, literal);
+        }
+    }
+
+    private static void writeConstraint(
+            DataOutputStream output,
+            NFConjoinedDisjointPredicates constraint) throws IOException {
+
+        if (constraint == null || constraint.getPredicates() == null) {
+            output.writeInt(-1);
+            return;
+        }
+
+        output.writeInt(constraint.getPredicates().size());
+        for (final NFDisjointPredicates disjunction : constraint.getPredicates()) {
+            output.writeInt(disjunction.getPredicates().size());
+            for (final PredicateDesc predicate : disjunction.getPredicates()) {
+                writeString(output, predicate.getSubject());
+                writeEnum(output, predicate.getSubjectModifier());
+                writeEnum(output, predicate.getOperator());
+                writeString(output, predicate.getLiteral());
+            }
+        }
+    }
+
+    private static void writeDependencies(DataOutputStream output, DependencyGraph graph) throws IOException {
+        final Map<DependencyGraph.Node, Integer> nodes = new LinkedHashMap<>();
+        output.writeInt(graph.getNodes().size());
+        for (final DependencyGraph.Node node : graph.getNodes()) {
+            nodes.put(node, nodes.size());
+            writeEnum(output, node.getKind());
+            writeString(output, node.getName());
+        }
+        for (final DependencyGraph.Node node : nodes.keySet()) {
+            final Set<DependencyGraph.Node> dependents = graph.getDependents(node);
+            output.writeInt(dependents.size());
+            for (final DependencyGraph.Node dependent : dependents) {
+                output.writeInt(nodes.get(dependent));
+            }
+        }
+    }
+
+    private static void writeEnum(DataOutputStream output, Enum<?> value) throws IOException {
+        writeString(output, value == null ? null : value.name());
+    }
+
+    private static void writeStrings(DataOutputStream output, List<String> strings) throws IOException {
+        if (strings == null) {
+            output.writeInt(-1);
+            return;
+        }
+
+        output.writeInt(strings.size());
+        for (final String string : strings) {
+            writeString(output, string);
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String string) throws IOException {
+        if (string == null) {
+            output.writeInt(-1);
+            return;
+        }
+
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static ImplementationDesc readImplementation(DataInputStream input) throws IOException {
+        final byte kind = input.readByte();
+        final TypeFields fields = readType(input);
+        final ConstructionMethod constructionMethod = readEnum(input, ConstructionMethod.class);
+        final boolean withModification = input.readBoolean();
+        final boolean cachedHash = input.readBoolean();
+        final boolean cachedString = input.readBoolean();
+        if (kind == VALUE) {
+            return ValueDesc
+                .builder()
+                .licence(fields.licence)
+                .author(fields.author)
+                .packageName(fields.packageName)
+                .name(fields.name)
+                .properties(fields.properties)
+                .supertypes(fields.supertypes)
+                .description(fields.description)
+                .constructionMethod(constructionMethod)
+                .withModification(withModification)
+                .cachedHash(cachedHash)
+                .cachedString(cachedString)
+                .build();
+        }
+        else if (kind == BEAN) {
+            return BeanDesc
+                .builder()
+                .licence(fields.licence)
+                .author(fields.author)
+                .packageName(fields.packageName)
+                .name(fields.name)
+                .properties(fields.properties)
+                .supertypes(fields.supertypes)
+                .description(fields.description)
+                .constructionMethod(constructionMethod)
+                .withModification(withModification)
+                .cachedHash(cachedHash)
+                .cachedString(cachedString)
+                .build();
+        }
+        else {
+            throw new IOException("Unknown implementation " + kind);
+        }
+    }
+
+    private static AbstractTypeDesc readAbstractType(DataInputStream input) throws IOException {
+        final TypeFields fields = readType(input);
+        return AbstractTypeDesc
+            .builder()
+            .licence(fields.licence)
+            .author(fields.author)
+            .packageName(fields.packageName)
+            .name(fields.name)
+            .properties(fields.properties)
+            .supertypes(fields.supertypes)
+            .description(fields.description)
+            .build();
+    }
+
+    private static TypeFields readType(DataInputStream input) throws IOException {
+        final TypeFields fields = new TypeFields();
+        fields.licence = readString(input);
+        fields.author = readString(input);
+        fields.packageName = readString(input);
+        fields.name = readString(input);
+        fields.properties = readProperties(input);
+        fields.supertypes = readStrings(input);
+        fields.description = readString(input);
+        return fields;
+    }
+
+    private static List<PropertyDesc> readProperties(DataInputStream input) throws IOException {
+        final int size = input.readInt();
+        if (size < 0) {
+            return null;
+        }
+
+        final List<PropertyDesc> properties = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            properties.add(PropertyDesc
+                .builder()
+                .name(readString(input))
+                .type(readString(input))
+                .typeParameters(readStrings(input))
+                .optional(input.readBoolean())
+                .override(input.readBoolean())
+                .defaultValue(readLiteral(input))
+                .constraint(readConstraint(input))
+                .description(readString(input))
+                .build());
+        }
+        return properties;
+    }
+
+    private static LiteralDesc readLiteral(DataInputStream input) throws IOException {
+        final byte kind = input.readByte();
+        switch (kind) {
+            case NO_LITERAL:
+                return null;
+            case UNSTRUCTURED_LITERAL:
+                return UnstructuredLiteral.builder().literal(readString(input)).build();
+            case CONSTANT_LITERAL:
+                return ConstantLiteral.builder().typeName(readString(input)).constant(readString(input)).build();
+            case INTEGER_LITERAL:
+                return IntegerLiteral.builder().integerLiteral(readString(input)).build();
+            case REAL_LITERAL:
+                return RealLiteral.builder().realLiteral(readString(input)).build();
+            case STRING_LITERAL:
+                return StringLiteral.builder().stringLiteral(readString(input)).build();
+            case COMPLEX_LITERAL:
+                return ComplexLiteral
+                    .builder()
+                    .typeName(readString(input))
+                    .subvalues(readLiterals(input))
+                    .constructionMethod(readEnum(input, ConstructionMethod.class))
+                    .build();
+            case NAMED_COMPLEX_LITERAL:
+                return NamedComplexLiteral
+                    .builder()
+                    .typeName(readString(input))
+                    .names(readStrings(input))
+                    .subvalues(readLiterals(input))
+                    .constructionMethod(readEnum(input, ConstructionMethod.class))
+                    .build();
+            default:
+                throw new IOException("Unknown literal " + kind);
+        }
+    }
+
+    private static List<LiteralDesc> readLiterals(DataInputStream input) throws IOException {
+        final int size = input.readInt();
+        if (size < 0) {
+            return null;
+        }
+
+        final List<LiteralDesc> literals = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            literals.add(readLiteral(input));
+        }
+        return literals;
+    }
+
+    private static NFConjoinedDisjointPredicates readConstraint(DataInputStream input) throws IOException {
+        final int size = input.readInt();
+        if (size < 0) {
+            return null;
+        }
+
+        final List<NFDisjointPredicates> disjunctions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final int predicateCount = input.readInt();
+            final List<PredicateDesc> predicates = new ArrayList<>(predicateCount);
+            for (int j = 0; j < predicateCount; j++) {
+                predicates.add(PredicateDesc
+                    .builder()
+                    .subject(readString(input))
+                    .subjectModifier(readEnum(input, SubjectModifier.class))
+                    .operator(readEnum(input, ConstraintOperator.class))
+                    .literal(readString(input))
+                    .build());
+            }
+            disjunctions.add(NFDisjointPredicates.builder().predicates(predicates).build());
+        }
+        return NFConjoinedDisjointPredicates.builder().predicates(disjunctions).build();
+    }
+
+    private static DependencyGraph readDependencies(DataInputStream input) throws IOException {
+        final int nodeCount = input.readInt();
+        if (nodeCount < 0) {
+            throw new IOException("Negative number of nodes in the dependencies");
+        }
+
+        final List<DependencyGraph.Node> nodes = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            final DependencyGraph.Kind kind = readEnum(input, DependencyGraph.Kind.class);
+            final String name = readString(input);
+            if (kind == null || name == null) {
+                throw new IOException("Incomplete node in the dependencies");
+            }
+            nodes.add(new DependencyGraph.Node(kind, name));
+        }
+
+        final DependencyGraph.Builder builder = DependencyGraph.builder();
+        for (final DependencyGraph.Node node : nodes) {
+            final int dependentCount = input.readInt();
+            for (int i = 0; i < dependentCount; i++) {
+                final int dependent = input.readInt();
+                if (dependent < 0 || dependent >= nodeCount) {
+                    throw new IOException("Unknown node in the dependencies");
+                }
+                builder.addEdge(node, nodes.get(dependent));
+            }
+        }
+        return builder.build();
+    }
+
+    private static <E extends Enum<E>> E readEnum(DataInputStream input, Class<E> type) throws IOException {
+        final String name = readString(input);
+        if (name == null) {
+            return null;
+        }
+
+        try {
+            return Enum.valueOf(type, name);
+        }
+        catch (IllegalArgumentException e) {
+            throw new IOException("Unknown constant " + name + " of " + type.getName(), e);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream input) throws IOException {
+        final int size = input.readInt();
+        if (size < 0) {
+            return null;
+        }
+
+        final List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            strings.add(readString(input));
+        }
+        return strings;
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        final int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        else if (length > input.available()) {
+            throw new IOException("String longer than the remaining data");
+        }
+
+        final byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private interface Encoder {
+        void encode(DataOutputStream output) throws IOException;
+    }
+
+    private static final class TypeFields {
+        private String licence;
+        private String author;
+        private String packageName;
+        private String name;
+        private List<PropertyDesc> properties;
+        private List<String> supertypes;
+        private String description;
+    }
+}
@@ -0,0 +1,84 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.mattunderscore.specky.context.file.FileContext;
+
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * {@link FileModelCache} that keeps the model of each file in memory. Only the model of the latest content of a file
+ * is kept, so the size of the cache is bounded by the number of files.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+@ThreadSafe
+public final class MemoryFileModelCache implements FileModelCache {
+    private final ConcurrentMap<Path, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<FileModel> get(FileContext fileContext) {
+        final Entry entry = entries.get(fileContext.getFile());
+        if (entry == null || !entry.contentHash.equals(contentHash(fileContext))) {
+            return Optional.empty();
+        }
+
+        return Optional.of(entry.fileModel);
+    }
+
+    @Override
+    public void put(FileContext fileContext, FileModel fileModel) {
+        entries.put(fileContext.getFile(), new Entry(contentHash(fileContext), fileModel));
+    }
+
+    /**
+     * Remove the models of all files other than the given files.
+     */
+    public void retainFiles(Collection<Path> files) {
+        entries.keySet().retainAll(files);
+    }
+
+    private static String contentHash(FileContext fileContext) {
+        return FileContentHash.hash("", fileContext);
+    }
+
+    @Immutable
+    private static final class Entry {
+        private final String contentHash;
+        private final FileModel fileModel;
+
+        private Entry(String contentHash, FileModel fileModel) {
+            this.contentHash = contentHash;
+            this.fileModel = fileModel;
+        }
+    }
+}
@@ -25,25 +25,48 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
 package com.mattunderscore.specky;
 
 import static com.mattunderscore.specky.CompositeSyntaxErrorListener.composeSyntaxListeners;
+import static com.mattunderscore.specky.error.listeners.CompositeSemanticErrorListener.composeListeners;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.unmodifiableSet;
 import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.BaseErrorListener;
-import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
 import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.Recognizer;
-import org.antlr.v4.runtime.UnbufferedTokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 
 import com.mattunderscore.specky.construction.method.resolver.ConstructionMethodResolver;
 import com.mattunderscore.specky.construction.method.resolver.MutableConstructionMethodResolver;
 import com.mattunderscore.specky.context.file.FileContext;
+import com.mattunderscore.specky.error.listeners.CountingSemanticErrorListener;
 import com.mattunderscore.specky.error.listeners.InternalSemanticErrorListener;
 import com.mattunderscore.specky.error.listeners.SemanticErrorListener;
 import com.mattunderscore.specky.error.listeners.SyntaxErrorListener;
@@ -57,6 +80,7 @@ import com.mattunderscore.specky.parser.Specky.SpecContext;
 import com.mattunderscore.specky.parser.SpeckyLexer;
 import com.mattunderscore.specky.type.resolver.MutableTypeResolver;
 import com.mattunderscore.specky.type.resolver.SpecTypeResolver;
+import com.mattunderscore.specky.type.resolver.TypeResolver;
 
 /**
  * Processor for the ANTLR4 generated AST. Returns a better representation of the DSL.
@@ -65,58 +89,260 @@ import com.mattunderscore.specky.type.resolver.SpecTypeResolver;
  */
 public final class ModelGenerator {
 
+    private final CountingSemanticErrorListener semanticErrorCounter;
     private final SemanticErrorListener errorListener;
     private final CountingSyntaxErrorListener errorCounter;
     private final SyntaxErrorListener syntaxErrorListener;
+    private final int parseThreads;
+    private final FileModelCache cache;
+    private final PredictionCounters predictionCounters;
+    private final PassObserver passObserver;
+    private volatile DependencyGraph dependencyGraph = DependencyGraph.EMPTY;
+    private volatile Set<Path> resolvedFiles = emptySet();
 
     /**
-     * Constructor.
+     * Constructor. Files are parsed one at a time.
      */
     public ModelGenerator(SemanticErrorListener errorListener, SyntaxErrorListener syntaxErrorListener) {
-        this.errorListener = errorListener;
+        this(errorListener, syntaxErrorListener, 1);
+    }
+
+    /**
+     * Constructor. Files are parsed concurrently using the given number of threads. The errors are reported in the
+     * same order as when parsing the files one at a time.
+     */
+    public ModelGenerator(
+            SemanticErrorListener errorListener,
+            SyntaxErrorListener syntaxErrorListener,
+            int parseThreads) {
+
+        this(errorListener, syntaxErrorListener, parseThreads, FileModelCache.NONE);
+    }
+
+    /**
+     * Constructor. Files are parsed concurrently using the given number of threads. The models of files are taken
+     * from the cache instead of parsing them when they are still valid.
+     */
+    public ModelGenerator(
+            SemanticErrorListener errorListener,
+            SyntaxErrorListener syntaxErrorListener,
+            int parseThreads,
+            FileModelCache cache) {
+
+        this(errorListener, syntaxErrorListener, parseThreads, cache, new PredictionCounters());
+    }
+
+    /**
+     * Constructor. Files are parsed concurrently using the given number of threads. The models of files are taken
+     * from the cache instead of parsing them when they are still valid. How the files are parsed is recorded by the
+     * prediction counters.
+     */
+    public ModelGenerator(
+            SemanticErrorListener errorListener,
+            SyntaxErrorListener syntaxErrorListener,
+            int parseThreads,
+            FileModelCache cache,
+            PredictionCounters predictionCounters) {
+
+        this(errorListener, syntaxErrorListener, parseThreads, cache, predictionCounters, PassObserver.NONE);
+    }
+
+    /**
+     * Constructor. Files are parsed concurrently using the given number of threads. The models of files are taken
+     * from the cache instead of parsing them when they are still valid. How the files are parsed is recorded by the
+     * prediction counters and each pass over a file is reported to the observer.
+     */
+    public ModelGenerator(
+            SemanticErrorListener errorListener,
+            SyntaxErrorListener syntaxErrorListener,
+            int parseThreads,
+            FileModelCache cache,
+            PredictionCounters predictionCounters,
+            PassObserver passObserver) {
+
+        if (parseThreads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed to parse files");
+        }
+
+        semanticErrorCounter = new CountingSemanticErrorListener();
+        this.errorListener = composeListeners(semanticErrorCounter, errorListener);
         errorCounter = new CountingSyntaxErrorListener();
         this.syntaxErrorListener = composeSyntaxListeners(errorCounter, syntaxErrorListener);
+        this.parseThreads = parseThreads;
+        this.cache = cache;
+        this.predictionCounters = predictionCounters;
+        this.passObserver = passObserver;
     }
 
     /**
      * @return the {@link SpecDesc} from a list of {@link FileContext} or null if there are syntax errors
      */
     public SpecDesc build(List<FileContext> input) {
+        dependencyGraph = DependencyGraph.EMPTY;
+        resolvedFiles = emptySet();
+        final int initialSemanticErrorCount = semanticErrorCounter.getErrorCount();
+        final int initialSyntaxErrorCount = errorCounter.getErrorCount();
         final SpecTypeResolver typeResolver = new SpecTypeResolver();
+        final MutableTypeResolver registeredTypes = new RegisteredTypeResolver(typeResolver);
+
+        final List<FileState> files = input
+            .stream()
+            .map(fileContext -> new FileState(
+                fileContext,
+                cache.get(fileContext).orElse(null),
+                new TypeReferenceRecorder(typeResolver)))
+            .collect(toList());
 
-        @SuppressWarnings("PMD.PrematureDeclaration")
-        final List<ParseContext> contexts = input
+        // Parse the files that are not cached
+        final List<FileState> uncachedFiles = files
             .stream()
-            .map(stream -> firstPass(stream, typeResolver))
+            .filter(file -> file.model == null)
             .collect(toList());
+        if (parseThreads > 1 && uncachedFiles.size() > 1) {
+            concurrentFirstPass(uncachedFiles, typeResolver);
+        }
+        else {
+            uncachedFiles.forEach(file -> {
+                final TypeNameRecorder recorder = new TypeNameRecorder(typeResolver, file.typeNames);
+                file.context =
+                    firstPass(file.fileContext, recorder, file.typeReferences, errorListener, syntaxErrorListener);
+            });
+        }
 
-        if (errorCounter.getErrorCount() > 0) {
+        if (errorCounter.getErrorCount() > initialSyntaxErrorCount) {
             return null;
         }
 
-        contexts.forEach(this::secondPass);
+        // Register the types of the cached files, parsing any that conflict to report the error
+        files
+            .stream()
+            .filter(file -> file.model != null)
+            .forEach(file -> {
+                if (canRegister(file.model.getTypeNames(), typeResolver)) {
+                    file.model.getTypeNames().forEach(typeName -> register(typeName, typeResolver));
+                    file.typeNames.addAll(file.model.getTypeNames());
+                }
+                else {
+                    final TypeNameRecorder recorder = new TypeNameRecorder(typeResolver, file.typeNames);
+                    file.model = null;
+                    file.context =
+                        firstPass(file.fileContext, recorder, file.typeReferences, errorListener, syntaxErrorListener);
+                }
+            });
+
+        // Parse the cached files that reference type names that now resolve differently
+        files
+            .stream()
+            .filter(file -> file.model != null && !isUnchanged(file.model.getTypeReferences(), typeResolver))
+            .forEach(file -> {
+                file.model = null;
+                file.context = firstPass(
+                    file.fileContext,
+                    registeredTypes,
+                    file.typeReferences,
+                    errorListener,
+                    syntaxErrorListener);
+            });
+
+        if (errorCounter.getErrorCount() > initialSyntaxErrorCount) {
+            return null;
+        }
+
+        // Walk each parsed file once, the properties of the implementations are resolved after the walks once all
+        // the abstract types are known
+        final Map<String, AbstractTypeDesc> nameToAbstractType = new HashMap<>();
+        files
+            .stream()
+            .filter(file -> file.context != null)
+            .forEach(file -> file.resolution = resolvePass(file.context, nameToAbstractType));
 
-        // Parse the abstract types
-        final List<AbstractTypeDesc> abstractTypes = contexts
+        files.forEach(file -> file.abstractTypes = file.model == null ?
+            file.resolution.abstractTypes :
+            file.model.getAbstractTypes());
+        final List<AbstractTypeDesc> abstractTypes = files
             .stream()
-            .map(this::thirdPass)
+            .map(file -> file.abstractTypes)
             .flatMap(Collection::stream)
             .collect(toList());
 
         // Collect a map of names to abstract types
-        final Map<String, AbstractTypeDesc> nameToAbstractType = abstractTypes
-            .stream()
-            .collect(toMap(
-                abstractTypeDesc -> abstractTypeDesc.getPackageName() + "." + abstractTypeDesc.getName(),
-                abstractTypeDesc -> abstractTypeDesc));
-
-        // Parse the implementations
-        final List<ImplementationDesc> implementations = contexts
+        abstractTypes.forEach(abstractTypeDesc -> nameToAbstractType.put(
+            abstractTypeDesc.getPackageName() + "." + abstractTypeDesc.getName(),
+            abstractTypeDesc));
+
+        // Combine the dependencies of the files
+        files.forEach(file -> file.dependencies = file.model == null ?
+            file.resolution.dependencies :
+            file.model.getDependencies());
+        final DependencyGraph.Builder graphBuilder = DependencyGraph.builder();
+        files.forEach(file -> graphBuilder.addGraph(file.dependencies));
+        final DependencyGraph graph = graphBuilder.build();
+
+        // Resolve the implementations, the cached implementations are only valid if the abstract types they depend on
+        // are unchanged
+        files.forEach(file -> {
+            file.abstractTypeEnvironment = abstractTypeEnvironment(file, graph, nameToAbstractType);
+            if (file.model != null && file.model.getAbstractTypeEnvironment().equals(file.abstractTypeEnvironment)) {
+                file.implementations = file.model.getImplementations();
+            }
+            else {
+                if (file.resolution == null) {
+                    file.context = firstPass(
+                        file.fileContext,
+                        registeredTypes,
+                        file.typeReferences,
+                        errorListener,
+                        syntaxErrorListener);
+                    file.resolution = resolvePass(file.context, nameToAbstractType);
+                }
+                final Runnable endPass = passObserver.begin(file.fileContext.getFile(), "implementations");
+                try {
+                    file.implementations = file.resolution.resolveImplementations();
+                }
+                finally {
+                    endPass.run();
+                }
+            }
+            // Release the parse tree and the characters of the file. They cannot be released sooner because the
+            // implementations depend on the abstract types of every file, so until now the trees and characters of
+            // all the parsed files are held at once.
+            if (file.context != null) {
+                file.parsed = true;
+                file.context = null;
+                file.resolution = null;
+                releaseCharacters(file.fileContext);
+            }
+        });
+        final List<ImplementationDesc> implementations = files
             .stream()
-            .map(context -> fourthPass(context, nameToAbstractType))
+            .map(file -> file.implementations)
             .flatMap(Collection::stream)
             .collect(toList());
 
+        // Only cache the models of files resolved without errors
+        if (semanticErrorCounter.getErrorCount() == initialSemanticErrorCount &&
+            errorCounter.getErrorCount() == initialSyntaxErrorCount) {
+            files
+                .stream()
+                .filter(file -> file.parsed)
+                .forEach(file -> cache.put(
+                    file.fileContext,
+                    new FileModel(
+                        file.typeNames,
+                        file.abstractTypes,
+                        file.implementations,
+                        file.dependencies,
+                        file.typeReferences.getReferences(),
+                        file.abstractTypeEnvironment)));
+        }
+
+        dependencyGraph = graph;
+        resolvedFiles = unmodifiableSet(files
+            .stream()
+            .filter(file -> file.parsed)
+            .map(file -> file.fileContext.getFile())
+            .collect(toSet()));
+
         // Combine all the types
         final List<TypeDesc> types = Stream
             .concat(
@@ -133,7 +359,94 @@ public final class ModelGenerator {
             .build();
     }
 
-    private ParseContext firstPass(FileContext fileContext, MutableTypeResolver typeResolver) {
+    /**
+     * @return the dependencies of the sections and types of the last specification built
+     */
+    public DependencyGraph getDependencyGraph() {
+        return dependencyGraph;
+    }
+
+    /**
+     * @return the files of the last specification built that were parsed and resolved instead of taken from the
+     * cache
+     */
+    public Set<Path> getResolvedFiles() {
+        return resolvedFiles;
+    }
+
+    private static void releaseCharacters(FileContext fileContext) {
+        final ANTLRInputStream stream = fileContext.getAntlrStream();
+        if (stream instanceof FileContentStream) {
+            ((FileContentStream) stream).releaseCharacters();
+        }
+    }
+
+    private void concurrentFirstPass(List<FileState> files, MutableTypeResolver typeResolver) {
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parseThreads, files.size()));
+        try {
+            final List<DeferredParseEvents> deferredEvents = new ArrayList<>(files.size());
+            final List<Future<ParseContext>> futures = new ArrayList<>(files.size());
+            for (final FileState file : files) {
+                final DeferredParseEvents events = new DeferredParseEvents(
+                    errorListener,
+                    syntaxErrorListener,
+                    new TypeNameRecorder(typeResolver, file.typeNames));
+                deferredEvents.add(events);
+                futures.add(executor.submit(() ->
+                    firstPass(file.fileContext, events, file.typeReferences, events, events)));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                files.get(i).context = futures.get(i).get();
+                // Replay in the order of the input so the types are registered and errors reported as if the
+                // files were parsed one at a time
+                deferredEvents.get(i).replay();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing files", e);
+        }
+        catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Failed to parse file", cause);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ParseContext firstPass(
+            FileContext fileContext,
+            MutableTypeResolver parseTypeResolver,
+            TypeResolver typeResolver,
+            SemanticErrorListener parseErrorListener,
+            SyntaxErrorListener parseSyntaxErrorListener) {
+
+        final Runnable endPass = passObserver.begin(fileContext.getFile(), "parse");
+        try {
+            return parseFile(
+                fileContext,
+                parseTypeResolver,
+                typeResolver,
+                parseErrorListener,
+                parseSyntaxErrorListener);
+        }
+        finally {
+            endPass.run();
+        }
+    }
+
+    private ParseContext parseFile(
+            FileContext fileContext,
+            MutableTypeResolver parseTypeResolver,
+            TypeResolver typeResolver,
+            SemanticErrorListener parseErrorListener,
+            SyntaxErrorListener parseSyntaxErrorListener) {
+
         final SpeckyLexer lexer = new SpeckyLexer(fileContext.getAntlrStream());
         lexer.removeErrorListeners();
         final BaseErrorListener syntaxErrListener = new BaseErrorListener() {
@@ -146,7 +459,7 @@ public final class ModelGenerator {
                     String msg,
                     RecognitionException e) {
 
-                syntaxErrorListener.syntaxError(
+                parseSyntaxErrorListener.syntaxError(
                     fileContext.getFile(),
                     recognizer,
                     offendingSymbol,
@@ -164,29 +477,71 @@ public final class ModelGenerator {
         final SectionScopeResolver sectionScopeResolver =
             new SectionScopeResolver(typeResolver, fileContext.getFile());
 
-        final MutableConstructionMethodResolver constructionMethodResolver = new MutableConstructionMethodResolver();
-
-        final Specky parser = new Specky(new UnbufferedTokenStream<CommonToken>(lexer));
-
-        final FileTypeListener fileTypeListener =
-            new FileTypeListener(errListener, typeResolver);
-        final FileConstructionMethodListener fileConstructionMethodListener =
-            new FileConstructionMethodListener(errListener, constructionMethodResolver);
+        final ParseRegistrations registrations = new ParseRegistrations(
+            fileContext.getFile(),
+            parseTypeResolver,
+            parseErrorListener,
+            parseSyntaxErrorListener);
 
-        parser.addParseListener(fileTypeListener);
-        parser.addParseListener(fileConstructionMethodListener);
+        final CommonTokenStream tokens = new CommonTokenStream(lexer);
+        final Specky parser = new Specky(tokens);
         parser.removeErrorListeners();
-        parser.addErrorListener(syntaxErrListener);
+        final SpecContext specContext = parse(parser, tokens, syntaxErrListener, registrations);
+        registrations.complete();
 
         return new ParseContext(
             fileContext.getFile(),
-            parser.spec(),
+            specContext,
             sectionScopeResolver,
             errListener,
-            constructionMethodResolver);
+            registrations.getConstructionMethodResolver());
     }
 
-    private void secondPass(ParseContext context) {
+    private SpecContext parse(
+            Specky parser,
+            CommonTokenStream tokens,
+            ANTLRErrorListener syntaxErrListener,
+            ParseRegistrations registrations) {
+
+        // The types and construction methods are registered by listening to the parser instead of walking the tree
+        parser.addParseListener(registrations.begin());
+
+        // SLL prediction is faster but fails on syntax errors and the inputs that need full context
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        parser.setErrorHandler(new BailErrorStrategy());
+        try {
+            final SpecContext specContext = parser.spec();
+            predictionCounters.sllParsed();
+            return specContext;
+        }
+        catch (ParseCancellationException e) {
+            predictionCounters.llFallback();
+        }
+
+        // Parse again with LL prediction to get the correct parse tree or report the syntax errors, discarding the
+        // registrations of the abandoned parse
+        tokens.seek(0);
+        parser.reset();
+        parser.removeParseListeners();
+        parser.addParseListener(registrations.begin());
+        parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+        parser.setErrorHandler(new DefaultErrorStrategy());
+        parser.addErrorListener(syntaxErrListener);
+        parser.addErrorListener(predictionCounters);
+        return parser.spec();
+    }
+
+    private FileResolution resolvePass(ParseContext context, Map<String, AbstractTypeDesc> nameToAbstractType) {
+        final Runnable endPass = passObserver.begin(context.file, "resolve");
+        try {
+            return resolveFile(context, nameToAbstractType);
+        }
+        finally {
+            endPass.run();
+        }
+    }
+
+    private FileResolution resolveFile(ParseContext context, Map<String, AbstractTypeDesc> nameToAbstractType) {
         final InternalSemanticErrorListener errListener = context.errListener;
 
         final SectionScopeResolver sectionScopeResolver = context.scopeResolver;
@@ -208,7 +563,30 @@ public final class ModelGenerator {
             new SectionPackageListener(sectionScopeResolver);
         final CopyrightHolderListener copyrightHolderListener =
             new CopyrightHolderListener(sectionScopeResolver);
+        final DependencyListener dependencyListener =
+            new DependencyListener(sectionScopeResolver, context.file);
+
+        final AbstractTypeListener abstractTypeListener = new AbstractTypeListener(
+            sectionScopeResolver,
+            errListener,
+            new ValueParser(errListener, context.constructionMethodResolver));
+
+        // The properties of the implementations depend on the abstract types of every file so are resolved later
+        final List<Runnable> propertyResolutions = new ArrayList<>();
+        final ValueListener valueListener = new ValueListener(
+            sectionScopeResolver,
+            nameToAbstractType,
+            errListener,
+            new ValueParser(errListener, context.constructionMethodResolver),
+            propertyResolutions::add);
+        final BeanListener beanListener = new BeanListener(
+            sectionScopeResolver,
+            nameToAbstractType,
+            errListener,
+            new ValueParser(errListener, context.constructionMethodResolver),
+            propertyResolutions::add);
 
+        // The section listeners must come first so the scope is complete before the types are visited
         final DelegatingParseListener parseListener = new DelegatingParseListener(
             sectionLicenceListener,
             sectionImportTypeListener,
@@ -216,50 +594,248 @@ public final class ModelGenerator {
             sectionScopeListener,
             sectionAuthorListener,
             sectionPackageListener,
-            copyrightHolderListener);
+            copyrightHolderListener,
+            dependencyListener,
+            abstractTypeListener,
+            valueListener,
+            beanListener);
 
         ParseTreeWalker.DEFAULT.walk(parseListener, context.specContext);
+
+        return new FileResolution(
+            abstractTypeListener.getAbstractTypeDescs(),
+            dependencyListener.getDependencies(),
+            () -> {
+                propertyResolutions.forEach(Runnable::run);
+                return Stream
+                    .concat(
+                        beanListener.getBeanDescs().stream(),
+                        valueListener.getValueDescs().stream())
+                    .collect(toList());
+            });
     }
 
-    private List<AbstractTypeDesc> thirdPass(ParseContext ctx) {
+    private static boolean canRegister(List<String> typeNames, TypeResolver typeResolver) {
+        return typeNames
+            .stream()
+            .noneMatch(typeName ->
+                typeResolver.resolveType(typeName).isPresent() ||
+                typeResolver.resolveType(typeName.substring(typeName.lastIndexOf('.') + 1)).isPresent());
+    }
 
-        final InternalSemanticErrorListener errListener =
-                (message, ruleContext) -> errorListener.onSemanticError(ctx.file, message, ruleContext);
+    private static void register(String typeName, MutableTypeResolver typeResolver) {
+        final int separator = typeName.lastIndexOf('.');
+        typeResolver.registerTypeName(typeName.substring(0, separator), typeName.substring(separator + 1));
+    }
 
-        final AbstractTypeListener abstractTypeListener = new AbstractTypeListener(
-            ctx.scopeResolver,
-            errListener,
-            new ValueParser(errListener, ctx.constructionMethodResolver));
-        ParseTreeWalker.DEFAULT.walk(abstractTypeListener, ctx.specContext);
-        return abstractTypeListener.getAbstractTypeDescs();
+    private static boolean isUnchanged(List<String> typeReferences, TypeResolver typeResolver) {
+        return typeReferences
+            .stream()
+            .allMatch(reference -> {
+                final int separator = reference.indexOf('=');
+                final String type = typeResolver.resolveType(reference.substring(0, separator)).orElse("");
+                return type.equals(reference.substring(separator + 1));
+            });
     }
 
-    private List<ImplementationDesc> fourthPass(ParseContext ctx, Map<String, AbstractTypeDesc> nameToAbstractType) {
+    private String abstractTypeEnvironment(
+            FileState file,
+            DependencyGraph graph,
+            Map<String, AbstractTypeDesc> nameToAbstractType) {
 
-        final InternalSemanticErrorListener errListener =
-                (message, ruleContext) -> errorListener.onSemanticError(ctx.file, message, ruleContext);
+        if (cache == FileModelCache.NONE) {
+            return "";
+        }
 
-        final ValueListener valueListener = new ValueListener(
-            ctx.scopeResolver,
-            nameToAbstractType,
-            errListener,
-            new ValueParser(errListener, ctx.constructionMethodResolver));
-        final BeanListener beanListener = new BeanListener(
-            ctx.scopeResolver,
-            nameToAbstractType,
-            errListener,
-            new ValueParser(errListener, ctx.constructionMethodResolver));
+        final List<DependencyGraph.Node> types = file.typeNames
+            .stream()
+            .map(DependencyGraph.Node::type)
+            .collect(toList());
+        final List<AbstractTypeDesc> abstractTypes = graph
+            .getAffecting(types)
+            .stream()
+            .filter(node -> node.getKind() == DependencyGraph.Kind.TYPE)
+            .map(DependencyGraph.Node::getName)
+            .sorted()
+            .map(nameToAbstractType::get)
+            .filter(Objects::nonNull)
+            .collect(toList());
+        return FileModelCodec.hash(FileModelCodec.encodeAbstractTypes(abstractTypes));
+    }
 
-        final DelegatingParseListener parseListener = new DelegatingParseListener(
-            valueListener,
-            beanListener);
-        ParseTreeWalker.DEFAULT.walk(parseListener, ctx.specContext);
+    /**
+     * The state of a file being built.
+     */
+    private static final class FileState {
+        private final FileContext fileContext;
+        private final List<String> typeNames = new ArrayList<>();
+        private final TypeReferenceRecorder typeReferences;
+        private FileModel model;
+        private ParseContext context;
+        private FileResolution resolution;
+        private boolean parsed;
+        private DependencyGraph dependencies;
+        private String abstractTypeEnvironment;
+        private List<AbstractTypeDesc> abstractTypes;
+        private List<ImplementationDesc> implementations;
+
+        private FileState(FileContext fileContext, FileModel model, TypeReferenceRecorder typeReferences) {
+            this.fileContext = fileContext;
+            this.model = model;
+            this.typeReferences = typeReferences;
+        }
+    }
 
-        return Stream
-            .concat(
-                beanListener.getBeanDescs().stream(),
-                valueListener.getValueDescs().stream())
-            .collect(toList());
+    /**
+     * Type resolver that records the names of the types registered with it.
+     */
+    private static final class TypeNameRecorder implements MutableTypeResolver {
+        private final MutableTypeResolver typeResolver;
+        private final List<String> typeNames;
+
+        private TypeNameRecorder(MutableTypeResolver typeResolver, List<String> typeNames) {
+            this.typeResolver = typeResolver;
+            this.typeNames = typeNames;
+        }
+
+        @Override
+        public CompletableFuture<Void> registerTypeName(String packageName, String typeName) {
+            typeNames.add(packageName + "." + typeName);
+            return typeResolver.registerTypeName(packageName, typeName);
+        }
+
+        @Override
+        public Optional<String> resolveType(String name) {
+            return typeResolver.resolveType(name);
+        }
+    }
+
+    /**
+     * Type resolver that records the type names resolved with it and the types they resolved to. Type names are
+     * resolved from the threads the file is parsed and resolved on.
+     */
+    private static final class TypeReferenceRecorder implements TypeResolver {
+        private final TypeResolver typeResolver;
+        private final ConcurrentMap<String, String> references = new ConcurrentHashMap<>();
+
+        private TypeReferenceRecorder(TypeResolver typeResolver) {
+            this.typeResolver = typeResolver;
+        }
+
+        @Override
+        public Optional<String> resolveType(String name) {
+            final Optional<String> type = typeResolver.resolveType(name);
+            references.put(name, type.orElse(""));
+            return type;
+        }
+
+        /**
+         * @return the recorded references as {@code name=type}, sorted
+         */
+        private List<String> getReferences() {
+            return references
+                .entrySet()
+                .stream()
+                .map(reference -> reference.getKey() + "=" + reference.getValue())
+                .sorted()
+                .collect(toList());
+        }
+    }
+
+    /**
+     * Type resolver for parsing a file again after its types have been registered.
+     */
+    private static final class RegisteredTypeResolver implements MutableTypeResolver {
+        private final TypeResolver typeResolver;
+
+        private RegisteredTypeResolver(TypeResolver typeResolver) {
+            this.typeResolver = typeResolver;
+        }
+
+        @Override
+        public CompletableFuture<Void> registerTypeName(String packageName, String typeName) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public Optional<String> resolveType(String name) {
+            return typeResolver.resolveType(name);
+        }
+    }
+
+    /**
+     * Registers the types and construction methods of a file while it is parsed. The registrations and errors are
+     * deferred until the parse completes because a failed SLL parse is abandoned and the file is parsed again.
+     */
+    private static final class ParseRegistrations {
+        private final Path file;
+        private final MutableTypeResolver typeResolver;
+        private final SemanticErrorListener errorListener;
+        private final SyntaxErrorListener syntaxErrorListener;
+        private DeferredParseEvents events;
+        private MutableConstructionMethodResolver constructionMethodResolver;
+
+        private ParseRegistrations(
+                Path file,
+                MutableTypeResolver typeResolver,
+                SemanticErrorListener errorListener,
+                SyntaxErrorListener syntaxErrorListener) {
+
+            this.file = file;
+            this.typeResolver = typeResolver;
+            this.errorListener = errorListener;
+            this.syntaxErrorListener = syntaxErrorListener;
+        }
+
+        /**
+         * @return the listener for a parse, discarding the registrations of any earlier parse
+         */
+        private ParseTreeListener begin() {
+            final DeferredParseEvents parseEvents =
+                new DeferredParseEvents(errorListener, syntaxErrorListener, typeResolver);
+            final InternalSemanticErrorListener errListener =
+                (message, ruleContext) -> parseEvents.onSemanticError(file, message, ruleContext);
+            events = parseEvents;
+            constructionMethodResolver = new MutableConstructionMethodResolver();
+            return new DelegatingParseListener(
+                new FileTypeListener(errListener, parseEvents),
+                new FileConstructionMethodListener(errListener, constructionMethodResolver));
+        }
+
+        /**
+         * Register the types and report the errors of the completed parse.
+         */
+        private void complete() {
+            events.replay();
+        }
+
+        private ConstructionMethodResolver getConstructionMethodResolver() {
+            return constructionMethodResolver;
+        }
+    }
+
+    /**
+     * The result of walking the parse tree of a file. The implementations are resolved once the abstract types of all
+     * the files are known.
+     */
+    private static final class FileResolution {
+        private final List<AbstractTypeDesc> abstractTypes;
+        private final DependencyGraph dependencies;
+        private final Supplier<List<ImplementationDesc>> implementations;
+
+        private FileResolution(
+                List<AbstractTypeDesc> abstractTypes,
+                DependencyGraph dependencies,
+                Supplier<List<ImplementationDesc>> implementations) {
+
+            this.abstractTypes = abstractTypes;
+            this.dependencies = dependencies;
+            this.implementations = implementations;
+        }
+
+        private List<ImplementationDesc> resolveImplementations() {
+            return implementations.get();
+        }
     }
 
     private static final class ParseContext {
@@ -108,4 +108,18 @@ import com.mattunderscore.specky.parser.Specky.String_valueContext;
     static boolean withModifications(Specky.OptsContext options) {
         return !(options == null || options.WITH_MODIFICATION() == null);
     }
+
+    /**
+     * @return if the hash code should be cached
+     */
+    static boolean cachedHash(Specky.OptsContext options) {
+        return !(options == null || options.CACHED_HASH() == null);
+    }
+
+    /**
+     * @return if the string representation should be cached
+     */
+    static boolean cachedString(Specky.OptsContext options) {
+        return !(options == null || options.CACHED_STRING() == null);
+    }
 }
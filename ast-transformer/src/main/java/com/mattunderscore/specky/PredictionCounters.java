@@ -0,0 +1,96 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.atn.ATNConfigSet;
+import org.antlr.v4.runtime.dfa.DFA;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Counts how files are parsed. Files are first parsed with SLL prediction and only parsed again with full LL
+ * prediction when that fails.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+@ThreadSafe
+public final class PredictionCounters extends BaseErrorListener {
+    private final AtomicInteger sllParses = new AtomicInteger(0);
+    private final AtomicInteger llFallbacks = new AtomicInteger(0);
+    private final AtomicInteger fullContextAttempts = new AtomicInteger(0);
+
+    @Override
+    public void reportAttemptingFullContext(
+            Parser recognizer,
+            DFA dfa,
+            int startIndex,
+            int stopIndex,
+            BitSet conflictingAlts,
+            ATNConfigSet configs) {
+
+        fullContextAttempts.incrementAndGet();
+    }
+
+    /*package*/ void sllParsed() {
+        sllParses.incrementAndGet();
+    }
+
+    /*package*/ void llFallback() {
+        llFallbacks.incrementAndGet();
+    }
+
+    /**
+     * @return the number of files parsed with SLL prediction
+     */
+    public int getSllParses() {
+        return sllParses.get();
+    }
+
+    /**
+     * @return the number of files parsed again with LL prediction after SLL prediction failed
+     */
+    public int getLlFallbacks() {
+        return llFallbacks.get();
+    }
+
+    /**
+     * @return the number of decisions that needed full context while parsing with LL prediction
+     */
+    public int getFullContextAttempts() {
+        return fullContextAttempts.get();
+    }
+
+    @Override
+    public String toString() {
+        return sllParses.get() + " parsed with SLL, " +
+            llFallbacks.get() + " fell back to LL, " +
+            fullContextAttempts.get() + " full context attempts";
+    }
+}
@@ -35,13 +35,15 @@ import com.mattunderscore.specky.parser.SpeckyBaseListener;
 import net.jcip.annotations.NotThreadSafe;
 
 /**
- * AST listener for section scopes.
+ * AST listener for section scopes. The scope of a section is completed before its first type so that listeners for
+ * the types can resolve it during the same walk.
  *
  * @author Matt Champion 25/12/2016
  */
 @NotThreadSafe
 public final class SectionScopeListener extends SpeckyBaseListener {
     private final SectionScopeBuilder sectionScopeBuilder;
+    private boolean scopeCompleted;
 
     /**
      * Constructor.
@@ -53,6 +55,7 @@ public final class SectionScopeListener extends SpeckyBaseListener {
 
     @Override
     public void enterSectionContent(Specky.SectionContentContext ctx) {
+        scopeCompleted = false;
         final ParserRuleContext parent = ctx.getParent();
 
         if (parent instanceof Specky.SectionDeclarationContext) {
@@ -60,8 +63,25 @@ public final class SectionScopeListener extends SpeckyBaseListener {
         }
     }
 
+    @Override
+    public void enterTypeSpec(Specky.TypeSpecContext ctx) {
+        completeScope();
+    }
+
+    @Override
+    public void enterImplementationSpec(Specky.ImplementationSpecContext ctx) {
+        completeScope();
+    }
+
     @Override
     public void exitSectionContent(Specky.SectionContentContext ctx) {
-        sectionScopeBuilder.completeScope();
+        completeScope();
+    }
+
+    private void completeScope() {
+        if (!scopeCompleted) {
+            sectionScopeBuilder.completeScope();
+            scopeCompleted = true;
+        }
     }
 }
@@ -19,16 +19,33 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -38,6 +55,20 @@ import static org.mockito.MockitoAnnotations.initMocks;
  * @author Matt Champion 07/01/2017
  */
 public final class ModelGeneratorTest {
+    private static final String BASE_SPEC = "package com.example\n\n" +
+        "imports\n" +
+        "    java.time.Instant default Instant.EPOCH\n\n" +
+        "type Base\n" +
+        "    properties\n" +
+        "        Instant time\n\n" +
+        "value Impl : Base\n" +
+        "    properties\n" +
+        "        int id\n";
+    private static final String OTHER_SPEC = "package com.example.other\n\n" +
+        "value Other : Base\n" +
+        "    properties\n" +
+        "        int count\n";
+
     @Mock
     private SemanticErrorListener errorListener;
     @Mock
@@ -267,6 +298,244 @@ public final class ModelGeneratorTest {
                 p2));
     }
 
+    @Test
+    public void multipleFilesConcurrently() throws Exception {
+        final ModelGenerator serialModelGenerator = new ModelGenerator(errorListener, syntaxErrorListener);
+        final SpecDesc serialSpecDesc = serialModelGenerator.build(asList(
+            fileContext("AbstractType.spec"),
+            fileContext("Bean.spec"),
+            fileContext("SectionTest.spec"),
+            fileContext("optional.spec")));
+
+        final ModelGenerator concurrentModelGenerator = new ModelGenerator(errorListener, syntaxErrorListener, 4);
+        final SpecDesc concurrentSpecDesc = concurrentModelGenerator.build(asList(
+            fileContext("AbstractType.spec"),
+            fileContext("Bean.spec"),
+            fileContext("SectionTest.spec"),
+            fileContext("optional.spec")));
+
+        assertEquals(serialSpecDesc, concurrentSpecDesc);
+    }
+
+    @Test
+    public void cachedFiles() throws Exception {
+        final MemoryFileModelCache cache = new MemoryFileModelCache();
+        final ModelGenerator modelGenerator = new ModelGenerator(errorListener, syntaxErrorListener, 1, cache);
+        final SpecDesc specDesc = modelGenerator.build(asList(
+            fileContext("AbstractType.spec"),
+            fileContext("Bean.spec"),
+            fileContext("SectionTest.spec")));
+
+        assertEquals(0, cache.hits);
+        assertEquals(3, cache.models.size());
+
+        final SpecDesc cachedSpecDesc = modelGenerator.build(asList(
+            fileContext("AbstractType.spec"),
+            fileContext("Bean.spec"),
+            fileContext("SectionTest.spec")));
+
+        assertEquals(3, cache.hits);
+        assertEquals(specDesc, cachedSpecDesc);
+    }
+
+    @Test
+    public void charactersReleasedOnceResolved() {
+        final MemoryFileModelCache cache = new MemoryFileModelCache();
+        final ModelGenerator modelGenerator = new ModelGenerator(errorListener, syntaxErrorListener, 1, cache);
+        final ReleasableStream baseStream = new ReleasableStream(BASE_SPEC);
+        final ReleasableStream otherStream = new ReleasableStream(OTHER_SPEC);
+        modelGenerator.build(asList(fileContext("Base.spec", baseStream), fileContext("Other.spec", otherStream)));
+
+        assertEquals(1, baseStream.releases);
+        assertEquals(1, otherStream.releases);
+
+        final ReleasableStream cachedBaseStream = new ReleasableStream(BASE_SPEC);
+        final ReleasableStream cachedOtherStream = new ReleasableStream(OTHER_SPEC);
+        modelGenerator.build(asList(
+            fileContext("Base.spec", cachedBaseStream),
+            fileContext("Other.spec", cachedOtherStream)));
+
+        assertTrue(modelGenerator.getResolvedFiles().isEmpty());
+        assertEquals(0, cachedBaseStream.releases);
+        assertEquals(0, cachedOtherStream.releases);
+    }
+
+    @Test
+    public void cachedFilesWithNewFile() throws Exception {
+        final MemoryFileModelCache cache = new MemoryFileModelCache();
+        final ModelGenerator modelGenerator = new ModelGenerator(errorListener, syntaxErrorListener, 1, cache);
+        modelGenerator.build(asList(
+            fileContext("AbstractType.spec"),
+            fileContext("Bean.spec")));
+
+        final SpecDesc cachedSpecDesc = modelGenerator.build(asList(
+            fileContext("AbstractType.spec"),
+            fileContext("Bean.spec"),
+            fileContext("optional.spec")));
+
+        final SpecDesc specDesc = new ModelGenerator(errorListener, syntaxErrorListener).build(asList(
+            fileContext("AbstractType.spec"),
+            fileContext("Bean.spec"),
+            fileContext("optional.spec")));
+
+        assertEquals(2, cache.hits);
+        assertEquals(specDesc, cachedSpecDesc);
+    }
+
+    @Test
+    public void cachedFilesWithNewType() {
+        final MemoryFileModelCache cache = new MemoryFileModelCache();
+        final ModelGenerator modelGenerator = new ModelGenerator(errorListener, syntaxErrorListener, 1, cache);
+        modelGenerator.build(asList(
+            fileContext("a.spec", BASE_SPEC),
+            fileContext("b.spec", OTHER_SPEC)));
+
+        // A type that no cached file references does not affect them
+        modelGenerator.build(asList(
+            fileContext("a.spec", BASE_SPEC),
+            fileContext("b.spec", OTHER_SPEC),
+            fileContext("c.spec", "package com.example.third\n\nvalue Third\n    properties\n        int id\n")));
+
+        assertEquals(singleton(Paths.get("c.spec")), modelGenerator.getResolvedFiles());
+    }
+
+    @Test
+    public void dependencyGraph() {
+        final ModelGenerator modelGenerator = new ModelGenerator(errorListener, syntaxErrorListener);
+        modelGenerator.build(asList(
+            fileContext("a.spec", BASE_SPEC),
+            fileContext("b.spec", OTHER_SPEC)));
+
+        final DependencyGraph graph = modelGenerator.getDependencyGraph();
+        assertEquals(
+            new HashSet<>(asList("com.example.Base", "com.example.Impl", "com.example.other.Other")),
+            graph.getAffectedTypes(singletonList(Paths.get("a.spec"))));
+        assertEquals(
+            singleton("com.example.other.Other"),
+            graph.getAffectedTypes(singletonList(Paths.get("b.spec"))));
+        assertEquals(
+            singleton(DependencyGraph.Node.type("com.example.Base")),
+            graph.getDependents(DependencyGraph.Node.value(
+                DependencyGraph.Node.section(Paths.get("a.spec"), null),
+                "java.time.Instant")));
+        assertEquals(
+            new HashSet<>(asList(Paths.get("a.spec"), Paths.get("b.spec"))),
+            modelGenerator.getResolvedFiles());
+    }
+
+    @Test
+    public void cachedImplementationsWithChangedFile() {
+        final MemoryFileModelCache cache = new MemoryFileModelCache();
+        final ModelGenerator modelGenerator = new ModelGenerator(errorListener, syntaxErrorListener, 1, cache);
+        modelGenerator.build(asList(
+            fileContext("a.spec", BASE_SPEC),
+            fileContext("b.spec", OTHER_SPEC)));
+
+        // Changes to an implementation do not affect other files
+        modelGenerator.build(asList(
+            fileContext("a.spec", BASE_SPEC),
+            fileContext("b.spec", OTHER_SPEC + "        int size\n")));
+        assertEquals(singleton(Paths.get("b.spec")), modelGenerator.getResolvedFiles());
+
+        // Changes to an abstract type affect the files with implementations of it
+        final SpecDesc specDesc = modelGenerator.build(asList(
+            fileContext("a.spec", BASE_SPEC.replace("Instant time", "Instant time\n        long version")),
+            fileContext("b.spec", OTHER_SPEC + "        int size\n")));
+        assertEquals(
+            new HashSet<>(asList(Paths.get("a.spec"), Paths.get("b.spec"))),
+            modelGenerator.getResolvedFiles());
+        assertEquals(4, specDesc
+            .getImplementations()
+            .stream()
+            .filter(implementation -> "Other".equals(implementation.getName()))
+            .findFirst()
+            .get()
+            .getProperties()
+            .size());
+    }
+
+    @Test
+    public void cachedHash() {
+        final SpecDesc specDesc = new ModelGenerator(errorListener, syntaxErrorListener).build(singletonList(
+            fileContext("a.spec", "package com.example\n\n" +
+                "value Cached\n" +
+                "    properties\n" +
+                "        int id\n" +
+                "    options\n" +
+                "        cached hash\n\n" +
+                "value Uncached\n" +
+                "    properties\n" +
+                "        int id\n")));
+
+        assertTrue(specDesc.getImplementations().get(0).isCachedHash());
+        assertFalse(specDesc.getImplementations().get(1).isCachedHash());
+    }
+
+    @Test
+    public void cachedHashOfBean() {
+        new ModelGenerator(errorListener, syntaxErrorListener).build(singletonList(
+            fileContext("a.spec", "package com.example\n\n" +
+                "bean Cached\n" +
+                "    properties\n" +
+                "        int id\n" +
+                "    options\n" +
+                "        cached hash\n")));
+
+        verify(errorListener).onSemanticError(
+            eq(Paths.get("a.spec")),
+            eq("Beans are mutable so cannot cache their hash code"),
+            any());
+    }
+
+    @Test
+    public void parseWithSll() throws Exception {
+        final PredictionCounters counters = new PredictionCounters();
+        final ModelGenerator modelGenerator =
+            new ModelGenerator(errorListener, syntaxErrorListener, 1, FileModelCache.NONE, counters);
+        modelGenerator.build(asList(
+            fileContext("AbstractType.spec"),
+            fileContext("Bean.spec")));
+
+        assertEquals(2, counters.getSllParses());
+        assertEquals(0, counters.getLlFallbacks());
+    }
+
+    @Test
+    public void syntaxErrorFallsBackToLl() {
+        final PredictionCounters counters = new PredictionCounters();
+        final ModelGenerator modelGenerator =
+            new ModelGenerator(errorListener, syntaxErrorListener, 1, FileModelCache.NONE, counters);
+        final FileContext fileContext = new FileContext();
+        fileContext.setFile(Paths.get("."));
+        fileContext.setAntlrStream(new ANTLRInputStream("package com.example\n\nvalue Example :\n"));
+
+        final SpecDesc specDesc = modelGenerator.build(singletonList(fileContext));
+
+        assertNull(specDesc);
+        assertEquals(0, counters.getSllParses());
+        assertEquals(1, counters.getLlFallbacks());
+        verify(syntaxErrorListener, atLeastOnce())
+            .syntaxError(any(), any(), any(), anyInt(), anyInt(), anyString(), any());
+    }
+
+    @Test
+    public void buildAfterSyntaxError() {
+        final ModelGenerator modelGenerator = new ModelGenerator(errorListener, syntaxErrorListener);
+        assertNull(modelGenerator.build(singletonList(
+            fileContext("a.spec", "package com.example\n\nvalue Example :\n"))));
+        verify(syntaxErrorListener, atLeastOnce())
+            .syntaxError(any(), any(), any(), anyInt(), anyInt(), anyString(), any());
+
+        final SpecDesc specDesc = modelGenerator.build(singletonList(fileContext("a.spec", BASE_SPEC)));
+
+        assertNotNull(specDesc);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noParseThreads() {
+        new ModelGenerator(errorListener, syntaxErrorListener, 0);
+    }
+
     @Test
     public void optionalPrimitives() throws Exception {
         final ANTLRInputStream stream = new ANTLRInputStream(SectionImportValueListenerTest
@@ -309,4 +578,74 @@ public final class ModelGeneratorTest {
             containsInAnyOrder(
                 p0));
     }
+
+    private static final class InMemoryFileModelCache implements FileModelCache {
+        private final Map<String, FileModel> models = new HashMap<>();
+        private int hits;
+
+        @Override
+        public Optional<FileModel> get(FileContext fileContext) {
+            final FileModel fileModel = models.get(fileContext.getAntlrStream().toString());
+            if (fileModel != null) {
+                hits += 1;
+            }
+            return Optional.ofNullable(fileModel);
+        }
+
+        @Override
+        public void put(FileContext fileContext, FileModel fileModel) {
+            try {
+                models.put(
+                    fileContext.getAntlrStream().toString(),
+                    FileModelCodec.decode(FileModelCodec.encode(fileModel)));
+            }
+            catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private static final class ReleasableStream extends ANTLRInputStream implements FileContentStream {
+        private final String content;
+        private int releases;
+
+        private ReleasableStream(String content) {
+            super(content);
+            this.content = content;
+        }
+
+        @Override
+        public byte[] getContentDigest() {
+            return FileModelCodec.newDigest().digest(content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void releaseCharacters() {
+            releases += 1;
+        }
+    }
+
+    private static FileContext fileContext(String file, ANTLRInputStream stream) {
+        final FileContext fileContext = new FileContext();
+        fileContext.setFile(Paths.get(file));
+        fileContext.setAntlrStream(stream);
+        return fileContext;
+    }
+
+    private static FileContext fileContext(String file, String spec) {
+        final FileContext fileContext = new FileContext();
+        fileContext.setFile(Paths.get(file));
+        fileContext.setAntlrStream(new ANTLRInputStream(spec));
+        return fileContext;
+    }
+
+    private static FileContext fileContext(String resource) throws IOException {
+        final FileContext fileContext = new FileContext();
+        fileContext.setFile(Paths.get("."));
+        fileContext.setAntlrStream(new ANTLRInputStream(ModelGeneratorTest
+            .class
+            .getClassLoader()
+            .getResourceAsStream(resource)));
+        return fileContext;
+    }
 }
@@ -27,7 +27,11 @@ package com.mattunderscore.specky.generator;
 
 import static java.util.stream.Collectors.toList;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import com.mattunderscore.specky.model.AbstractTypeDesc;
 import com.mattunderscore.specky.model.BeanDesc;
@@ -47,6 +51,7 @@ public final class Generator {
     private final TypeGenerator<ImplementationDesc> valueGenerator;
     private final TypeGenerator<ImplementationDesc> beanGenerator;
     private final TypeGenerator<TypeDesc> abstractTypeGenerator;
+    private final GenerationObserver observer;
 
     /**
      * Constructor.
@@ -56,9 +61,22 @@ public final class Generator {
             TypeGenerator<ImplementationDesc> beanGenerator,
             TypeGenerator<TypeDesc> abstractTypeGenerator) {
 
+        this(valueGenerator, beanGenerator, abstractTypeGenerator, GenerationObserver.NONE);
+    }
+
+    /**
+     * Constructor. The generation of each type is reported to the observer.
+     */
+    public Generator(
+            TypeGenerator<ImplementationDesc> valueGenerator,
+            TypeGenerator<ImplementationDesc> beanGenerator,
+            TypeGenerator<TypeDesc> abstractTypeGenerator,
+            GenerationObserver observer) {
+
         this.valueGenerator = valueGenerator;
         this.beanGenerator = beanGenerator;
         this.abstractTypeGenerator = abstractTypeGenerator;
+        this.observer = observer;
     }
 
     /**
@@ -72,7 +90,55 @@ public final class Generator {
             .collect(toList());
     }
 
+    /**
+     * Generate the types concurrently. The {@link TypeGenerator}s are shared between the threads of the executor.
+     *
+     * @return the Java files implied by the spec, in the same order as {@link #generate(SpecDesc)}
+     */
+    public List<JavaFile> generate(SpecDesc specDesc, ExecutorService executor) {
+        final List<Future<JavaFile>> futures = specDesc
+            .getTypes()
+            .stream()
+            .map(typeDesc -> executor.submit(() -> generateFile(specDesc, typeDesc)))
+            .collect(toList());
+
+        final List<JavaFile> javaFiles = new ArrayList<>(futures.size());
+        try {
+            for (final Future<JavaFile> future : futures) {
+                javaFiles.add(future.get());
+            }
+        }
+        catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating types", e);
+        }
+        catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Failed to generate type", cause);
+        }
+
+        return javaFiles;
+    }
+
     private JavaFile generateFile(SpecDesc specDesc, TypeDesc typeDesc) {
+        final Runnable end = observer.begin(typeDesc);
+        try {
+            return generateJavaFile(specDesc, typeDesc);
+        }
+        finally {
+            end.run();
+        }
+    }
+
+    private JavaFile generateJavaFile(SpecDesc specDesc, TypeDesc typeDesc) {
         final TypeSpec typeSpec = generateType(specDesc, typeDesc);
 
         final Builder builder = JavaFile
@@ -32,6 +32,7 @@ import com.squareup.javapoet.TypeSpec;
 
 /**
  * Appender to another type called for each property.
+ * Implementations are shared between threads when types are generated concurrently so must not hold mutable state.
  * @param <T> the type of the description of the type
  * @author Matt Champion
  */
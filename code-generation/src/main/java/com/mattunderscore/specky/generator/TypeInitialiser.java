@@ -31,6 +31,7 @@ import com.squareup.javapoet.TypeSpec;
 
 /**
  * Create a type.
+ * Implementations are shared between threads when types are generated concurrently so must not hold mutable state.
  * @param <T> the type
  * @author Matt Champion on 10/07/2016
  */
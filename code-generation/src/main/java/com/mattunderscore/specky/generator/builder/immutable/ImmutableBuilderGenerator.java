@@ -89,6 +89,7 @@ public final class ImmutableBuilderGenerator implements TypeAppender<Implementat
                 .toJavaDoc(),
                 new NewModifiedCollection(),
                 new InstantiateNewBuilder());
+    private final TypeAppender<ImplementationDesc> sharedCollectionGenerator = new SharedCollectionGenerator();
     private final TypeAppender<ImplementationDesc> booleanConditional = new BooleanConditionalConfiguratorGenerator(
         docMethod()
             .setMethodDescription("Applies the function to the builder if and only if the condition is {@code true}.")
@@ -139,6 +140,7 @@ public final class ImmutableBuilderGenerator implements TypeAppender<Implementat
             });
 
         constructorGenerator.append(builder, specDesc, valueDesc);
+        sharedCollectionGenerator.append(builder, specDesc, valueDesc);
         booleanConditional.append(builder, specDesc, valueDesc);
         conditionalGenerator.append(builder, specDesc, valueDesc);
         functionalConfiguratorGenerator.append(builder, specDesc, valueDesc);
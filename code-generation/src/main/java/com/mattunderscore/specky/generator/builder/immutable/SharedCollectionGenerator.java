@@ -0,0 +1,263 @@
+/* Copyright © 2016 Matthew Champion
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+
+package com.mattunderscore.specky.generator.builder.immutable;
+
+import static com.mattunderscore.specky.generator.statements.NewModifiedCollection.SHARED_LIST;
+import static com.mattunderscore.specky.generator.statements.NewModifiedCollection.SHARED_SET;
+import static com.squareup.javapoet.MethodSpec.constructorBuilder;
+import static com.squareup.javapoet.MethodSpec.methodBuilder;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.mattunderscore.specky.generator.TypeAppender;
+import com.mattunderscore.specky.model.ImplementationDesc;
+import com.mattunderscore.specky.model.SpecDesc;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+
+/**
+ * Generator for the collections used by immutable builders to add elements. The collections are persistent, adding
+ * an element returns a new collection that shares the elements of the collection it was added to. Adding n elements
+ * to a builder is O(n) instead of copying the collection for each element.
+ * <p>
+ * The elements are kept in an array that is shared between the collections. Each collection is a view of the
+ * elements that were present when it was created. The first collection to add an element claims the next slot in
+ * the array, other collections that add to the same array copy it.
+ *
+ * @author Matt Champion on 16/10/2017
+ */
+public final class SharedCollectionGenerator implements TypeAppender<ImplementationDesc> {
+    private static final TypeVariableName ELEMENT_TYPE = TypeVariableName.get("E");
+    private static final TypeName OBJECT_ARRAY = ArrayTypeName.of(Object.class);
+    private static final TypeName COLLECTION_TYPE =
+        ParameterizedTypeName.get(ClassName.get(Collection.class), ELEMENT_TYPE);
+    private static final AnnotationSpec SUPPRESS_UNCHECKED = AnnotationSpec
+        .builder(SuppressWarnings.class)
+        .addMember("value", "$S", "unchecked")
+        .build();
+
+    @Override
+    public void append(TypeSpec.Builder typeSpecBuilder, SpecDesc specDesc, ImplementationDesc implementationDesc) {
+        final boolean hasList = implementationDesc
+            .getProperties()
+            .stream()
+            .anyMatch(propertyDesc -> "java.util.List".equals(propertyDesc.getType()));
+        final boolean hasSet = implementationDesc
+            .getProperties()
+            .stream()
+            .anyMatch(propertyDesc -> "java.util.Set".equals(propertyDesc.getType()));
+
+        if (!hasList && !hasSet) {
+            return;
+        }
+
+        final ClassName builderType =
+            ClassName.get(implementationDesc.getPackageName(), implementationDesc.getName(), "Builder");
+        final TypeName sharedList = ParameterizedTypeName.get(builderType.nestedClass(SHARED_LIST), ELEMENT_TYPE);
+        typeSpecBuilder.addType(generateList(sharedList));
+
+        if (hasSet) {
+            final TypeName sharedSet = ParameterizedTypeName.get(builderType.nestedClass(SHARED_SET), ELEMENT_TYPE);
+            typeSpecBuilder.addType(generateSet(sharedList, sharedSet));
+        }
+    }
+
+    private TypeSpec generateList(TypeName sharedList) {
+        return TypeSpec
+            .classBuilder(SHARED_LIST)
+            .addJavadoc("List that shares its elements with the lists it was created from.\n")
+            .addModifiers(PRIVATE, STATIC, FINAL)
+            .addTypeVariable(ELEMENT_TYPE)
+            .superclass(ParameterizedTypeName.get(ClassName.get(AbstractList.class), ELEMENT_TYPE))
+            .addSuperinterface(RandomAccess.class)
+            .addField(OBJECT_ARRAY, "elements", PRIVATE, FINAL)
+            .addField(AtomicInteger.class, "claimed", PRIVATE, FINAL)
+            .addField(TypeName.INT, "size", PRIVATE, FINAL)
+            .addMethod(constructorBuilder()
+                .addModifiers(PRIVATE)
+                .addParameter(OBJECT_ARRAY, "elements")
+                .addParameter(AtomicInteger.class, "claimed")
+                .addParameter(TypeName.INT, "size")
+                .addStatement("this.elements = elements")
+                .addStatement("this.claimed = claimed")
+                .addStatement("this.size = size")
+                .build())
+            .addMethod(methodBuilder("append")
+                .addModifiers(PRIVATE, STATIC)
+                .addTypeVariable(ELEMENT_TYPE)
+                .returns(sharedList)
+                .addParameter(COLLECTION_TYPE, "collection")
+                .addParameter(ELEMENT_TYPE, "element")
+                .beginControlFlow("if (collection instanceof $L)", SHARED_LIST)
+                .addStatement("final $1T list = ($1T) collection", sharedList)
+                .addStatement("final int size = list.size")
+                .beginControlFlow(
+                    "if (size < list.elements.length && list.claimed.compareAndSet(size, size + 1))")
+                .addStatement("list.elements[size] = element")
+                .addStatement("return new $L<>(list.elements, list.claimed, size + 1)", SHARED_LIST)
+                .endControlFlow()
+                .endControlFlow()
+                .addCode("\n")
+                .addStatement("final int size = collection == null ? 0 : collection.size()")
+                .addStatement(
+                    "final $T elements = new Object[$T.max(10, size + (size >> 1) + 1)]",
+                    OBJECT_ARRAY,
+                    Math.class)
+                .addStatement("int index = 0")
+                .beginControlFlow("if (collection != null)")
+                .beginControlFlow("for (final $T current : collection)", ELEMENT_TYPE)
+                .addStatement("elements[index++] = current")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("elements[index] = element")
+                .addStatement(
+                    "return new $L<>(elements, new $T(index + 1), index + 1)",
+                    SHARED_LIST,
+                    AtomicInteger.class)
+                .build())
+            .addMethod(methodBuilder("get")
+                .addAnnotation(Override.class)
+                .addAnnotation(SUPPRESS_UNCHECKED)
+                .addModifiers(PUBLIC)
+                .returns(ELEMENT_TYPE)
+                .addParameter(TypeName.INT, "index")
+                .beginControlFlow("if (index < 0 || index >= size)")
+                .addStatement(
+                    "throw new $T(\"Index: \" + index + \", Size: \" + size)",
+                    IndexOutOfBoundsException.class)
+                .endControlFlow()
+                .addStatement("return ($T) elements[index]", ELEMENT_TYPE)
+                .build())
+            .addMethod(methodBuilder("size")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(TypeName.INT)
+                .addStatement("return size")
+                .build())
+            .build();
+    }
+
+    private TypeSpec generateSet(TypeName sharedList, TypeName sharedSet) {
+        final TypeName indicesType = ParameterizedTypeName.get(Map.class, Object.class, Integer.class);
+        return TypeSpec
+            .classBuilder(SHARED_SET)
+            .addJavadoc("Set that shares its elements with the sets it was created from.\n")
+            .addModifiers(PRIVATE, STATIC, FINAL)
+            .addTypeVariable(ELEMENT_TYPE)
+            .superclass(ParameterizedTypeName.get(ClassName.get(AbstractSet.class), ELEMENT_TYPE))
+            .addField(FieldSpec
+                .builder(Object.class, "NULL_KEY", PRIVATE, STATIC, FINAL)
+                .initializer("new $T()", Object.class)
+                .build())
+            .addField(sharedList, "elements", PRIVATE, FINAL)
+            .addField(indicesType, "indices", PRIVATE, FINAL)
+            .addMethod(constructorBuilder()
+                .addModifiers(PRIVATE)
+                .addParameter(sharedList, "elements")
+                .addParameter(indicesType, "indices")
+                .addStatement("this.elements = elements")
+                .addStatement("this.indices = indices")
+                .build())
+            .addMethod(methodBuilder("append")
+                .addModifiers(PRIVATE, STATIC)
+                .addTypeVariable(ELEMENT_TYPE)
+                .returns(sharedSet)
+                .addParameter(COLLECTION_TYPE, "collection")
+                .addParameter(ELEMENT_TYPE, "element")
+                .beginControlFlow("if (collection instanceof $L)", SHARED_SET)
+                .addStatement("final $1T set = ($1T) collection", sharedSet)
+                .beginControlFlow("if (set.contains(element))")
+                .addStatement("return set")
+                .endControlFlow()
+                .addCode("\n")
+                .addStatement("final $T elements = $L.append(set.elements, element)", sharedList, SHARED_LIST)
+                .beginControlFlow("if (elements.elements == set.elements.elements)")
+                .addStatement("set.indices.put(key(element), set.elements.size)")
+                .addStatement("return new $L<>(elements, set.indices)", SHARED_SET)
+                .endControlFlow()
+                .endControlFlow()
+                .addCode("\n")
+                .addStatement("final $T indices = new $T<>()", indicesType, ConcurrentHashMap.class)
+                .addStatement("$T elements = null", sharedList)
+                .beginControlFlow("if (collection != null)")
+                .beginControlFlow("for (final $T current : collection)", ELEMENT_TYPE)
+                .beginControlFlow("if (!indices.containsKey(key(current)))")
+                .addStatement("indices.put(key(current), elements == null ? 0 : elements.size)")
+                .addStatement("elements = $L.append(elements, current)", SHARED_LIST)
+                .endControlFlow()
+                .endControlFlow()
+                .endControlFlow()
+                .beginControlFlow("if (!indices.containsKey(key(element)))")
+                .addStatement("indices.put(key(element), elements == null ? 0 : elements.size)")
+                .addStatement("elements = $L.append(elements, element)", SHARED_LIST)
+                .endControlFlow()
+                .addStatement("return new $L<>(elements, indices)", SHARED_SET)
+                .build())
+            .addMethod(methodBuilder("key")
+                .addModifiers(PRIVATE, STATIC)
+                .returns(Object.class)
+                .addParameter(Object.class, "element")
+                .addStatement("return element == null ? NULL_KEY : element")
+                .build())
+            .addMethod(methodBuilder("contains")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(TypeName.BOOLEAN)
+                .addParameter(Object.class, "element")
+                .addStatement("final $T index = indices.get(key(element))", Integer.class)
+                .addStatement("return index != null && index < elements.size")
+                .build())
+            .addMethod(methodBuilder("iterator")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(ParameterizedTypeName.get(ClassName.get(Iterator.class), ELEMENT_TYPE))
+                .addStatement("return elements.iterator()")
+                .build())
+            .addMethod(methodBuilder("size")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(TypeName.INT)
+                .addStatement("return elements.size")
+                .build())
+            .build();
+    }
+}
@@ -27,9 +27,13 @@ package com.mattunderscore.specky.generator.object.method;
 
 import static com.squareup.javapoet.MethodSpec.methodBuilder;
 import static com.squareup.javapoet.TypeName.OBJECT;
+import static java.util.Arrays.asList;
+import static java.util.Comparator.comparingInt;
 import static javax.lang.model.element.Modifier.PUBLIC;
 
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 import com.mattunderscore.specky.generator.TypeAppender;
 import com.mattunderscore.specky.model.ImplementationDesc;
@@ -43,10 +47,19 @@ import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 
 /**
- * Equals method generator.
+ * Equals method generator. The properties are compared in order of cost so that unequal objects are rejected
+ * as cheaply as possible. Primitives are compared first, then strings and boxed values, then other references and
+ * collections last.
+ * <p>
+ * Floating point properties are compared in the same way as {@link Double#equals(Object)} so that equals agrees
+ * with the hash code for NaN and signed zeros. Reference properties are compared with {@link Objects#equals} so that
+ * null values are equal.
  * @author Matt Champion on 06/07/2016
  */
 public final class EqualsGenerator implements TypeAppender<ImplementationDesc> {
+    private static final List<String> INTEGRAL_TYPES = asList("boolean", "byte", "char", "short", "int", "long");
+    private static final List<String> FLOATING_POINT_TYPES = asList("float", "double");
+    private static final List<String> COLLECTION_TYPES = asList("java.util.Set", "java.util.List");
     private final ParameterSpec other = ParameterSpec.builder(OBJECT, "other").build();
 
     private CodeBlock generateBlock(ImplementationDesc implementationDesc) {
@@ -63,12 +76,29 @@ public final class EqualsGenerator implements TypeAppender<ImplementationDesc> {
                 codeBlock
                     .addStatement(
                         "final $1T that = ($1T) $2N",
-                        ClassName.get(implementationDesc.getPackageName(), implementationDesc.getName()), other)
-                    .addStatement("return " + implementationDesc
-                        .getProperties()
-                        .stream()
-                        .map(this::generatePropertyComparison)
-                        .collect(Collectors.joining(" && ")));
+                        ClassName.get(implementationDesc.getPackageName(), implementationDesc.getName()), other);
+
+                if (implementationDesc.isCachedHash()) {
+                    // Reject early if the hash codes of both have been computed and are different
+                    codeBlock
+                        .beginControlFlow(
+                            "if (this.$1N != 0 && that.$1N != 0 && this.$1N != that.$1N)",
+                            HashCodeGenerator.CACHED_HASH_FIELD)
+                        .addStatement("return false")
+                        .endControlFlow();
+                }
+
+                final List<PropertyDesc> properties = new ArrayList<>(implementationDesc.getProperties());
+                properties.sort(comparingInt(EqualsGenerator::comparisonCost));
+
+                final CodeBlock.Builder comparisons = CodeBlock
+                    .builder()
+                    .add("$L", generatePropertyComparison(properties.get(0)));
+                for (int i = 1; i < properties.size(); i++) {
+                    comparisons.add(" && $L", generatePropertyComparison(properties.get(i)));
+                }
+
+                codeBlock.addStatement("return $L", comparisons.build());
             }
             else {
                 codeBlock.addStatement("return true");
@@ -77,30 +107,44 @@ public final class EqualsGenerator implements TypeAppender<ImplementationDesc> {
         return codeBlock.build();
     }
 
-    private String generatePropertyComparison(PropertyDesc propertyDesc) {
+    private CodeBlock generatePropertyComparison(PropertyDesc propertyDesc) {
         final String name = propertyDesc.getName();
         final String type = propertyDesc.getType();
 
-        if ("int".equals(type) || "boolean".equals(type) || "double".equals(type) || "long".equals(type)) {
-            return "this." + name + " == " + "that." + name;
+        if (INTEGRAL_TYPES.contains(type)) {
+            return CodeBlock.of("this.$1N == that.$1N", name);
         }
-
-        if (propertyDesc.isOptional()) {
-            return "(this." +
-                name +
-                " == null && that." +
-                name +
-                " == null || (" +
-                "this." +
-                name +
-                " != null && this." +
-                name +
-                ".equals(that." +
-                name +
-                ")))";
+        else if ("double".equals(type)) {
+            return CodeBlock.of("$1T.compare(this.$2N, that.$2N) == 0", Double.class, name);
+        }
+        else if ("float".equals(type)) {
+            return CodeBlock.of("$1T.compare(this.$2N, that.$2N) == 0", Float.class, name);
         }
 
-        return "this." + name + ".equals(that." + name + ")";
+        // Reference properties may be null, for example the unset properties of beans
+        return CodeBlock.of("$1T.equals(this.$2N, that.$2N)", Objects.class, name);
+    }
+
+    /**
+     * @return the relative cost of comparing the property
+     */
+    private static int comparisonCost(PropertyDesc propertyDesc) {
+        final String type = propertyDesc.getType();
+        if (INTEGRAL_TYPES.contains(type)) {
+            return 0;
+        }
+        else if (FLOATING_POINT_TYPES.contains(type)) {
+            return 1;
+        }
+        else if (type.startsWith("java.lang.")) {
+            return 2;
+        }
+        else if (COLLECTION_TYPES.contains(type)) {
+            return 4;
+        }
+        else {
+            return 3;
+        }
     }
 
     @Override
@@ -26,41 +26,103 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
 package com.mattunderscore.specky.generator.object.method;
 
 import static com.squareup.javapoet.MethodSpec.methodBuilder;
-import static java.util.stream.Collectors.joining;
+import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.TRANSIENT;
 
-import java.util.Objects;
+import java.util.List;
 
 import com.mattunderscore.specky.generator.TypeAppender;
+import com.mattunderscore.specky.model.ImplementationDesc;
 import com.mattunderscore.specky.model.PropertyDesc;
 import com.mattunderscore.specky.model.SpecDesc;
-import com.mattunderscore.specky.model.ImplementationDesc;
-import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 
 /**
- * Hash code generator.
+ * Hash code generator. The hash code is combined from the hash codes of the properties in the same way as
+ * {@link java.util.Objects#hash(Object...)} without creating an array or boxing primitives.
+ * <p>
+ * Types with a cached hash keep the hash code in a field after it is first computed. The field is not volatile, a
+ * thread that does not see the cached value computes the same value again.
  * @author Matt Champion on 06/07/2016
  */
 public final class HashCodeGenerator implements TypeAppender<ImplementationDesc> {
+    /**
+     * The name of the field the hash code is cached in.
+     */
+    public static final String CACHED_HASH_FIELD = "cachedHashCode";
 
     @Override
     public void append(TypeSpec.Builder typeSpecBuilder, SpecDesc specDesc, ImplementationDesc typeDesc) {
-        final MethodSpec methodSpec = methodBuilder("hashCode")
+        final MethodSpec.Builder methodSpec = methodBuilder("hashCode")
             .addAnnotation(Override.class)
             .addModifiers(PUBLIC)
-            .returns(TypeName.INT)
-            .addStatement(
-                "return $T.hash($L)",
-                ClassName.get(Objects.class),
-                typeDesc
-                    .getProperties()
-                    .stream()
-                    .map(PropertyDesc::getName)
-                    .collect(joining(", ")))
+            .returns(TypeName.INT);
+
+        if (typeDesc.isCachedHash() && !typeDesc.getProperties().isEmpty()) {
+            typeSpecBuilder.addField(FieldSpec
+                .builder(TypeName.INT, CACHED_HASH_FIELD, PRIVATE, TRANSIENT)
+                .build());
+            methodSpec
+                .addStatement("int result = this.$N", CACHED_HASH_FIELD)
+                .beginControlFlow("if (result == 0)")
+                .addStatement("result = 1")
+                .addCode(generateCombination(typeDesc.getProperties()))
+                .addStatement("this.$N = result", CACHED_HASH_FIELD)
+                .endControlFlow()
+                .addStatement("return result");
+        }
+        else {
+            methodSpec.addCode(generateBlock(typeDesc.getProperties()));
+        }
+
+        typeSpecBuilder.addMethod(methodSpec.build());
+    }
+
+    private CodeBlock generateBlock(List<PropertyDesc> properties) {
+        if (properties.isEmpty()) {
+            return CodeBlock
+                .builder()
+                .addStatement("return 1")
+                .build();
+        }
+
+        return CodeBlock
+            .builder()
+            .addStatement("int result = 1")
+            .add("$L", generateCombination(properties))
+            .addStatement("return result")
             .build();
-        typeSpecBuilder.addMethod(methodSpec);
+    }
+
+    private CodeBlock generateCombination(List<PropertyDesc> properties) {
+        final CodeBlock.Builder codeBlock = CodeBlock.builder();
+        properties.forEach(property -> codeBlock.addStatement("result = 31 * result + $L", propertyHash(property)));
+        return codeBlock.build();
+    }
+
+    private CodeBlock propertyHash(PropertyDesc propertyDesc) {
+        final String name = propertyDesc.getName();
+        final String type = propertyDesc.getType();
+
+        if ("int".equals(type)) {
+            return CodeBlock.of("$T.hashCode(this.$N)", Integer.class, name);
+        }
+        else if ("long".equals(type)) {
+            return CodeBlock.of("$T.hashCode(this.$N)", Long.class, name);
+        }
+        else if ("double".equals(type)) {
+            return CodeBlock.of("$T.hashCode(this.$N)", Double.class, name);
+        }
+        else if ("boolean".equals(type)) {
+            return CodeBlock.of("$T.hashCode(this.$N)", Boolean.class, name);
+        }
+
+        // Properties that are not optional can still be null in beans and types built without validation
+        return CodeBlock.of("(this.$1N == null ? 0 : this.$1N.hashCode())", name);
     }
 }
@@ -25,10 +25,15 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
 
 package com.mattunderscore.specky.generator.object.method;
 
+import static com.mattunderscore.specky.javapoet.javadoc.JavaDocBuilder.docMethod;
 import static com.squareup.javapoet.MethodSpec.methodBuilder;
-import static java.lang.String.format;
-import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toSet;
+import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.TRANSIENT;
+
+import java.util.List;
+import java.util.Set;
 
 import com.mattunderscore.specky.generator.TypeAppender;
 import com.mattunderscore.specky.model.ImplementationDesc;
@@ -36,12 +41,18 @@ import com.mattunderscore.specky.model.PropertyDesc;
 import com.mattunderscore.specky.model.SpecDesc;
 import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ClassName;
-import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.TypeSpec;
 
 /**
- * Generator for toString implementation.
+ * Generator for toString implementation. The string representation is appended to a {@link StringBuilder} by an
+ * {@code appendTo} method that toString delegates to. Properties that are other generated implementations are
+ * appended to the same builder.
+ * <p>
+ * Types with a cached string keep the string representation in a field after it is first computed. The field is not
+ * volatile, a thread that does not see the cached value computes an equal value again.
  * @author Matt Champion on 27/06/16
  */
 public final class ToStringGenerator implements TypeAppender<ImplementationDesc> {
@@ -65,6 +76,16 @@ public final class ToStringGenerator implements TypeAppender<ImplementationDesc>
      * Property formatter.
      */
     public static final SimplePropertyFormatter SIMPLE_PROPERTY_FORMATTER = new SimplePropertyFormatter();
+    /**
+     * The name of the method that appends the string representation.
+     */
+    public static final String APPEND_TO_METHOD = "appendTo";
+    /**
+     * The name of the field the string representation is cached in.
+     */
+    public static final String CACHED_STRING_FIELD = "cachedString";
+    private static final int ESTIMATED_PROPERTY_LENGTH = 16;
+    private static final ParameterSpec BUILDER = ParameterSpec.builder(StringBuilder.class, "builder").build();
 
     private final PropertyListBookend propertyListBookend;
     private final String propertySeparator;
@@ -85,35 +106,124 @@ public final class ToStringGenerator implements TypeAppender<ImplementationDesc>
 
     @Override
     public void append(TypeSpec.Builder typeSpecBuilder, SpecDesc specDesc, ImplementationDesc typeDesc) {
-        final MethodSpec methodSpec = methodBuilder("toString")
-            .returns(ClassName.get(String.class))
+        final boolean cached = typeDesc.isCachedString() && !typeDesc.getProperties().isEmpty();
+        if (cached) {
+            typeSpecBuilder.addField(FieldSpec
+                .builder(String.class, CACHED_STRING_FIELD, PRIVATE, TRANSIENT)
+                .build());
+        }
+
+        typeSpecBuilder
+            .addMethod(generateAppendTo(specDesc, typeDesc, cached))
+            .addMethod(generateToString(typeDesc, cached));
+    }
+
+    private MethodSpec generateAppendTo(SpecDesc specDesc, ImplementationDesc implementationDesc, boolean cached) {
+        final MethodSpec.Builder methodSpec = methodBuilder(APPEND_TO_METHOD)
+            .addJavadoc(docMethod()
+                .setMethodDescription("Append the string representation to a builder.")
+                .addParameter(BUILDER.name, "the builder")
+                .setReturnsDescription("the builder")
+                .toJavaDoc())
             .addModifiers(PUBLIC)
-            .addAnnotation(AnnotationSpec.builder(Override.class).build())
-            .addCode(generateImplementation(typeDesc))
+            .addParameter(BUILDER)
+            .returns(StringBuilder.class);
+
+        final List<PropertyDesc> properties = implementationDesc.getProperties();
+        if (properties.isEmpty()) {
+            return methodSpec
+                .addStatement("return $N.append($S)", BUILDER, implementationDesc.getName())
+                .build();
+        }
+
+        if (cached) {
+            methodSpec
+                .beginControlFlow("if (this.$N != null)", CACHED_STRING_FIELD)
+                .addStatement("return $N.append(this.$N)", BUILDER, CACHED_STRING_FIELD)
+                .endControlFlow();
+        }
+
+        final Set<String> appendableTypes = specDesc
+            .getImplementations()
+            .stream()
+            .map(implementation -> implementation.getPackageName() + "." + implementation.getName())
+            .collect(toSet());
+
+        for (int i = 0; i < properties.size(); i++) {
+            final PropertyDesc propertyDesc = properties.get(i);
+            final String name = propertyDesc.getName();
+            final String label = (i == 0 ? implementationDesc.getName() + propertyListBookend.getPrefix() :
+                propertySeparator) + propertyFormatter.formatPropertyName(propertyDesc);
+
+            if (appendableTypes.contains(propertyDesc.getType())) {
+                // Append nested values directly to the builder instead of creating a string for them
+                methodSpec
+                    .addStatement("$N.append($S)", BUILDER, label)
+                    .beginControlFlow("if (this.$N == null)", name)
+                    .addStatement("$N.append($S)", BUILDER, "null")
+                    .endControlFlow()
+                    .beginControlFlow("else")
+                    .addStatement("this.$N.$N($N)", name, APPEND_TO_METHOD, BUILDER)
+                    .endControlFlow();
+            }
+            else {
+                methodSpec.addStatement("$N.append($S).append(this.$N)", BUILDER, label, name);
+            }
+        }
+
+        return methodSpec
+            .addStatement("return $N.append($S)", BUILDER, propertyListBookend.getSuffix())
             .build();
-        typeSpecBuilder.addMethod(methodSpec);
     }
 
-    private CodeBlock generateImplementation(ImplementationDesc implementationDesc) {
-        if (implementationDesc.getProperties().size() > 0) {
-            final String properties = implementationDesc
-                .getProperties()
-                .stream()
-                .map(propertyFormatter::formatProperty)
-                .collect(joining(propertySeparator));
-            return CodeBlock
-                .builder()
+    private MethodSpec generateToString(ImplementationDesc implementationDesc, boolean cached) {
+        final MethodSpec.Builder methodSpec = methodBuilder("toString")
+            .returns(ClassName.get(String.class))
+            .addModifiers(PUBLIC)
+            .addAnnotation(AnnotationSpec.builder(Override.class).build());
+
+        final List<PropertyDesc> properties = implementationDesc.getProperties();
+        if (properties.isEmpty()) {
+            return methodSpec
+                .addStatement("return $S", implementationDesc.getName())
+                .build();
+        }
+
+        final int capacity = estimateLength(implementationDesc);
+        if (cached) {
+            return methodSpec
+                .addStatement("$T string = this.$N", String.class, CACHED_STRING_FIELD)
+                .beginControlFlow("if (string == null)")
                 .addStatement(
-                    "return \"$L$L$L$L\"",
-                    implementationDesc.getName(),
-                    propertyListBookend.getPrefix(),
-                    properties,
-                    propertyListBookend.getSuffix())
+                    "string = $N(new $T($L)).toString()",
+                    APPEND_TO_METHOD,
+                    StringBuilder.class,
+                    capacity)
+                .addStatement("this.$N = string", CACHED_STRING_FIELD)
+                .endControlFlow()
+                .addStatement("return string")
                 .build();
         }
         else {
-            return CodeBlock.of("return $S;", implementationDesc.getName());
+            return methodSpec
+                .addStatement("return $N(new $T($L)).toString()", APPEND_TO_METHOD, StringBuilder.class, capacity)
+                .build();
+        }
+    }
+
+    /**
+     * @return an estimate of the length of the string representation, used to size the builder
+     */
+    private int estimateLength(ImplementationDesc implementationDesc) {
+        final List<PropertyDesc> properties = implementationDesc.getProperties();
+        int length = implementationDesc.getName().length() +
+            propertyListBookend.getPrefix().length() +
+            propertyListBookend.getSuffix().length() +
+            propertySeparator.length() * (properties.size() - 1);
+        for (final PropertyDesc propertyDesc : properties) {
+            length += propertyFormatter.formatPropertyName(propertyDesc).length() + ESTIMATED_PROPERTY_LENGTH;
         }
+        return length;
     }
 
     /**
@@ -121,9 +231,9 @@ public final class ToStringGenerator implements TypeAppender<ImplementationDesc>
      */
     public interface PropertyFormatter {
         /**
-         * Generate the code for the property. Starts within a string literal.
+         * @return the text appended before the value of the property by {@code appendTo}
          */
-        String formatProperty(PropertyDesc propertyDesc);
+        String formatPropertyName(PropertyDesc propertyDesc);
     }
 
     /**
@@ -131,20 +241,20 @@ public final class ToStringGenerator implements TypeAppender<ImplementationDesc>
      */
     public interface PropertyListBookend {
         /**
-         * @return the prefix, starts within a string literal
+         * @return the prefix
          */
         String getPrefix();
 
         /**
-         * @return the suffix, starts within a string literal
+         * @return the suffix
          */
         String getSuffix();
     }
 
     private static final class SimplePropertyFormatter implements PropertyFormatter {
         @Override
-        public String formatProperty(PropertyDesc propertyDesc) {
-            return format("%1$s=\" + %1$s + \"", propertyDesc.getName());
+        public String formatPropertyName(PropertyDesc propertyDesc) {
+            return propertyDesc.getName() + "=";
         }
     }
 
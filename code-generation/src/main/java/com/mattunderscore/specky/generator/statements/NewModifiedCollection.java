@@ -28,50 +28,60 @@ package com.mattunderscore.specky.generator.statements;
 import com.mattunderscore.specky.model.ImplementationDesc;
 import com.mattunderscore.specky.model.PropertyDesc;
 import com.mattunderscore.specky.model.SpecDesc;
+import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.MethodSpec.Builder;
 import com.squareup.javapoet.TypeName;
 
-import java.util.Collections;
-
 import static com.mattunderscore.specky.generator.GeneratorUtils.getType;
 
 /**
- * Generate a statement to update a collection.
+ * Generate a statement to create a new collection with an element added. The new collection shares the elements of
+ * the current collection.
  *
  * @author Matt Champion on 16/09/16
  */
 public final class NewModifiedCollection implements StatementAppenderForProperty {
+    /**
+     * The name of the list type nested in the builder that shares elements.
+     */
+    public static final String SHARED_LIST = "SharedList";
+    /**
+     * The name of the set type nested in the builder that shares elements.
+     */
+    public static final String SHARED_SET = "SharedSet";
+
     @Override
     public Builder generate(
             Builder methodBuilder,
             SpecDesc specDesc,
             ImplementationDesc implementationDesc,
             PropertyDesc propertyDesc) {
+        final ClassName builderType =
+            ClassName.get(implementationDesc.getPackageName(), implementationDesc.getName(), "Builder");
+
         if ("java.util.Set".equals(propertyDesc.getType())) {
-            return generateCollection(
-                    methodBuilder,
-                propertyDesc,
-                getType("java.util.HashSet", Collections.singletonList(propertyDesc.getTypeParameters().get(0))));
+            return generateCollection(methodBuilder, propertyDesc, builderType.nestedClass(SHARED_SET));
         }
         else if ("java.util.List".equals(propertyDesc.getType())) {
-            return generateCollection(
-                methodBuilder,
-                propertyDesc,
-                getType("java.util.ArrayList", Collections.singletonList(propertyDesc.getTypeParameters().get(0))));
+            return generateCollection(methodBuilder, propertyDesc, builderType.nestedClass(SHARED_LIST));
         }
         else {
             throw new IllegalArgumentException("Type " + propertyDesc.getType() + " not supported");
         }
     }
 
-    private Builder generateCollection(Builder methodBuilder, PropertyDesc propertyDesc, TypeName implementationType) {
+    private Builder generateCollection(Builder methodBuilder, PropertyDesc propertyDesc, ClassName sharedType) {
         final String pluralPropertyName = propertyDesc.getName();
         final String propertyName = propertyDesc.getName().substring(0, pluralPropertyName.length() - 1);
         final TypeName type = getType(propertyDesc);
 
         return methodBuilder
-            .addStatement("final $T $L = new $T()", type, pluralPropertyName, implementationType)
-            .addStatement("$L.addAll(this.$L)", pluralPropertyName, pluralPropertyName)
-            .addStatement("$L.add($L)", pluralPropertyName, propertyName);
+            .addStatement(
+                "final $T $L = $T.append(this.$L, $L)",
+                type,
+                pluralPropertyName,
+                sharedType,
+                pluralPropertyName,
+                propertyName);
     }
 }
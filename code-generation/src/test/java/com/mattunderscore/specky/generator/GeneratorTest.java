@@ -0,0 +1,121 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky.generator;
+
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mattunderscore.specky.model.AbstractTypeDesc;
+import com.mattunderscore.specky.model.BeanDesc;
+import com.mattunderscore.specky.model.ImplementationDesc;
+import com.mattunderscore.specky.model.SpecDesc;
+import com.mattunderscore.specky.model.TypeDesc;
+import com.mattunderscore.specky.model.ValueDesc;
+import com.squareup.javapoet.JavaFile;
+
+/**
+ * Unit tests for {@link Generator}.
+ *
+ * @author Matt Champion 15/10/2017
+ */
+public final class GeneratorTest {
+    private final Generator generator = new Generator(
+        new TypeGenerator<ImplementationDesc>(new ValueInitialiser(), emptyList(), emptyList()),
+        new TypeGenerator<ImplementationDesc>(new BeanInitialiser(), emptyList(), emptyList()),
+        new TypeGenerator<TypeDesc>(new AbstractTypeInitialiser(), emptyList(), emptyList()));
+    private final SpecDesc specDesc = SpecDesc
+        .builder()
+        .types(IntStream
+            .range(0, 60)
+            .mapToObj(GeneratorTest::createType)
+            .collect(toList()))
+        .build();
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void generate() {
+        final List<JavaFile> javaFiles = generator.generate(specDesc);
+
+        assertEquals(60, javaFiles.size());
+        for (int i = 0; i < 60; i++) {
+            assertEquals("Type" + i, javaFiles.get(i).typeSpec.name);
+        }
+    }
+
+    @Test
+    public void generateConcurrently() {
+        final List<JavaFile> serialJavaFiles = generator.generate(specDesc);
+        final List<JavaFile> concurrentJavaFiles = generator.generate(specDesc, executor);
+
+        assertEquals(serialJavaFiles.size(), concurrentJavaFiles.size());
+        for (int i = 0; i < serialJavaFiles.size(); i++) {
+            assertEquals(serialJavaFiles.get(i).toString(), concurrentJavaFiles.get(i).toString());
+        }
+    }
+
+    private static TypeDesc createType(int i) {
+        if (i % 3 == 0) {
+            return ValueDesc
+                .builder()
+                .packageName("com.example")
+                .name("Type" + i)
+                .build();
+        }
+        else if (i % 3 == 1) {
+            return BeanDesc
+                .builder()
+                .packageName("com.example")
+                .name("Type" + i)
+                .build();
+        }
+        else {
+            return AbstractTypeDesc
+                .builder()
+                .packageName("com.example")
+                .name("Type" + i)
+                .build();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky.generator;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import com.mattunderscore.specky.generator.statements.StatementAppenderForProperty;
+import com.mattunderscore.specky.generator.statements.StatementGeneratorForType;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.TypeName;
+
+/**
+ * Checks that the shipped generators are stateless, so they can be shared between threads generating types
+ * concurrently. The types of the fields of the generators are checked recursively. A field must be final and either
+ * have a known immutable type or a type from this project that is stateless itself. For a field typed by an
+ * interface or abstract class of this project every implementation found must be stateless.
+ *
+ * @author Matt Champion 15/10/2017
+ */
+public final class StatelessGeneratorsTest {
+    private static final String PROJECT_PACKAGE = "com.mattunderscore.specky.";
+    private static final List<Class<?>> GENERATOR_TYPES = Arrays.asList(
+        TypeInitialiser.class,
+        TypeAppender.class,
+        TypeAppenderForProperty.class,
+        StatementAppenderForProperty.class,
+        StatementGeneratorForType.class);
+    private static final List<Class<?>> IMMUTABLE_TYPES = Arrays.asList(
+        String.class,
+        Boolean.class,
+        Character.class,
+        Byte.class,
+        Short.class,
+        Integer.class,
+        Long.class,
+        Float.class,
+        Double.class,
+        Pattern.class,
+        TypeName.class,
+        CodeBlock.class,
+        ParameterSpec.class,
+        FieldSpec.class,
+        MethodSpec.class,
+        AnnotationSpec.class);
+
+    @Test
+    public void generatorsAreStateless() throws Exception {
+        final List<Class<?>> classes = findClasses();
+        final List<Class<?>> generators = classes
+            .stream()
+            .filter(type -> !type.isInterface() && !Modifier.isAbstract(type.getModifiers()))
+            .filter(type -> GENERATOR_TYPES.stream().anyMatch(generatorType -> generatorType.isAssignableFrom(type)))
+            .collect(toList());
+
+        assertTrue("Expected to find the generators", generators.size() > 20);
+
+        final StatelessChecker checker = new StatelessChecker(classes);
+        for (final Class<?> generator : generators) {
+            checker.check(generator, generator.getName());
+        }
+    }
+
+    @Test
+    public void mutableFieldsAreRejected() throws Exception {
+        final List<Class<?>> classes = findClasses();
+
+        assertFalse(new StatelessChecker(classes).isStateless(WithList.class));
+        assertFalse(new StatelessChecker(classes).isStateless(WithBuilder.class));
+        assertFalse(new StatelessChecker(classes).isStateless(WithMutableHelper.class));
+        assertFalse(new StatelessChecker(classes).isStateless(WithNonFinalField.class));
+        assertTrue(new StatelessChecker(classes).isStateless(WithImmutableFields.class));
+    }
+
+    private static List<Class<?>> findClasses() throws IOException, URISyntaxException {
+        final Path classes = Paths.get(TypeAppender
+            .class
+            .getProtectionDomain()
+            .getCodeSource()
+            .getLocation()
+            .toURI());
+
+        try (Stream<Path> paths = Files.walk(classes)) {
+            return paths
+                .map(path -> classes.relativize(path).toString())
+                .filter(name -> name.endsWith(".class"))
+                .map(name -> name.substring(0, name.length() - ".class".length()).replace(File.separatorChar, '.'))
+                .map(StatelessGeneratorsTest::load)
+                .collect(toList());
+        }
+    }
+
+    private static Class<?> load(String className) {
+        try {
+            return Class.forName(className, false, StatelessGeneratorsTest.class.getClassLoader());
+        }
+        catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Checks types recursively, remembering the types that have been checked.
+     */
+    private static final class StatelessChecker {
+        private final List<Class<?>> classes;
+        private final Set<Class<?>> checked = new HashSet<>();
+
+        StatelessChecker(List<Class<?>> classes) {
+            this.classes = classes;
+        }
+
+        boolean isStateless(Class<?> type) {
+            try {
+                check(type, type.getName());
+                return true;
+            }
+            catch (AssertionError e) {
+                return false;
+            }
+        }
+
+        void check(Class<?> type, String path) {
+            if (type.isPrimitive() ||
+                type.isEnum() ||
+                IMMUTABLE_TYPES.stream().anyMatch(immutableType -> immutableType.isAssignableFrom(type)) ||
+                !checked.add(type)) {
+                return;
+            }
+
+            assertTrue(
+                path + " has the type " + type.getName() + " that is not known to be immutable",
+                type.getName().startsWith(PROJECT_PACKAGE));
+
+            if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+                classes
+                    .stream()
+                    .filter(implementation -> implementation != type && type.isAssignableFrom(implementation))
+                    .filter(implementation -> !implementation.isInterface())
+                    .forEach(implementation -> check(implementation, path + " (" + implementation.getName() + ")"));
+            }
+
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                for (final Field field : current.getDeclaredFields()) {
+                    // Static fields and references to enclosing instances are not state of the generator
+                    if (Modifier.isStatic(field.getModifiers()) ||
+                        field.isSynthetic() && field.getName().startsWith("this$")) {
+                        continue;
+                    }
+
+                    final String fieldPath = path + "." + field.getName();
+                    assertTrue(fieldPath + " must be final", Modifier.isFinal(field.getModifiers()));
+                    check(field.getType(), fieldPath);
+                }
+            }
+        }
+    }
+
+    private static final class WithList {
+        private final List<String> values = new ArrayList<>();
+    }
+
+    private static final class WithBuilder {
+        private final StringBuilder builder = new StringBuilder();
+    }
+
+    private static final class WithMutableHelper {
+        private final WithNonFinalField helper = new WithNonFinalField();
+    }
+
+    private static final class WithNonFinalField {
+        private String value;
+    }
+
+    private static final class WithImmutableFields {
+        private final String value = "";
+        private final int count = 0;
+        private final ParameterSpec parameter = ParameterSpec.builder(int.class, "count").build();
+    }
+}
@@ -0,0 +1,137 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky.generator.object.method;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.mattunderscore.specky.model.ImplementationDesc;
+import com.mattunderscore.specky.model.PropertyDesc;
+import com.mattunderscore.specky.model.SpecDesc;
+import com.mattunderscore.specky.model.ValueDesc;
+import com.squareup.javapoet.TypeSpec;
+
+/**
+ * Unit tests for {@link EqualsGenerator}.
+ *
+ * @author Matt Champion on 16/10/2017
+ */
+public final class EqualsGeneratorTest {
+    private final EqualsGenerator generator = new EqualsGenerator();
+
+    @Test
+    public void generate() {
+        final ImplementationDesc implementationDesc = ValueDesc
+            .builder()
+            .name("Value")
+            .packageName("com.example")
+            .properties(asList(
+                property("java.util.List", "names", false),
+                property("com.example.Other", "other", false),
+                property("java.lang.String", "name", false),
+                property("java.lang.Integer", "size", true),
+                property("double", "ratio", false),
+                property("int", "id", false),
+                property("boolean", "flag", false)))
+            .build();
+
+        // Long statements may be wrapped
+        final String code = generate(implementationDesc).replaceAll("\\s+", " ");
+
+        assertTrue(code.endsWith(
+            "final com.example.Value that = (com.example.Value) other; " +
+                "return this.id == that.id && this.flag == that.flag && " +
+                "java.lang.Double.compare(this.ratio, that.ratio) == 0 && " +
+                "java.util.Objects.equals(this.name, that.name) && " +
+                "java.util.Objects.equals(this.size, that.size) && " +
+                "java.util.Objects.equals(this.other, that.other) && " +
+                "java.util.Objects.equals(this.names, that.names); "));
+    }
+
+    @Test
+    public void generateCached() {
+        final ImplementationDesc implementationDesc = ValueDesc
+            .builder()
+            .name("Value")
+            .packageName("com.example")
+            .properties(asList(property("int", "id", false)))
+            .cachedHash(true)
+            .build();
+
+        assertEquals(
+            "if (other == this) {\n" +
+                "  return true;\n" +
+                "}\n" +
+                "else if (other == null || !this.getClass().equals(other.getClass())) {\n" +
+                "  return false;\n" +
+                "}\n" +
+                "final com.example.Value that = (com.example.Value) other;\n" +
+                "if (this.cachedHashCode != 0 && that.cachedHashCode != 0 && " +
+                "this.cachedHashCode != that.cachedHashCode) {\n" +
+                "  return false;\n" +
+                "}\n" +
+                "return this.id == that.id;\n",
+            generate(implementationDesc));
+    }
+
+    @Test
+    public void generateWithoutProperties() {
+        final ImplementationDesc implementationDesc = ValueDesc
+            .builder()
+            .name("Value")
+            .packageName("com.example")
+            .properties(emptyList())
+            .build();
+
+        assertEquals(
+            "if (other == this) {\n" +
+                "  return true;\n" +
+                "}\n" +
+                "else if (other == null || !this.getClass().equals(other.getClass())) {\n" +
+                "  return false;\n" +
+                "}\n" +
+                "return true;\n",
+            generate(implementationDesc));
+    }
+
+    private String generate(ImplementationDesc implementationDesc) {
+        final TypeSpec.Builder builder = TypeSpec.classBuilder("Value");
+        generator.append(builder, SpecDesc.builder().build(), implementationDesc);
+        return builder.build().methodSpecs.get(0).code.toString();
+    }
+
+    private static PropertyDesc property(String type, String name, boolean optional) {
+        return PropertyDesc
+            .builder()
+            .type(type)
+            .name(name)
+            .optional(optional)
+            .build();
+    }
+}
@@ -0,0 +1,162 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky.generator.object.method;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import javax.lang.model.element.Modifier;
+
+import org.junit.Test;
+
+import com.mattunderscore.specky.model.ImplementationDesc;
+import com.mattunderscore.specky.model.PropertyDesc;
+import com.mattunderscore.specky.model.SpecDesc;
+import com.mattunderscore.specky.model.ValueDesc;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeSpec;
+
+/**
+ * Unit tests for {@link HashCodeGenerator}.
+ *
+ * @author Matt Champion on 16/10/2017
+ */
+public final class HashCodeGeneratorTest {
+    private final HashCodeGenerator generator = new HashCodeGenerator();
+
+    @Test
+    public void generate() {
+        final ImplementationDesc implementationDesc = ValueDesc
+            .builder()
+            .name("Value")
+            .packageName("com.example")
+            .properties(asList(
+                property("int", "id", false),
+                property("long", "count", false),
+                property("double", "ratio", false),
+                property("boolean", "flag", false),
+                property("java.lang.String", "name", false),
+                property("java.lang.Integer", "size", true)))
+            .build();
+
+        final String code = generate(implementationDesc).code.toString();
+
+        assertEquals(
+            "int result = 1;\n" +
+                "result = 31 * result + java.lang.Integer.hashCode(this.id);\n" +
+                "result = 31 * result + java.lang.Long.hashCode(this.count);\n" +
+                "result = 31 * result + java.lang.Double.hashCode(this.ratio);\n" +
+                "result = 31 * result + java.lang.Boolean.hashCode(this.flag);\n" +
+                "result = 31 * result + (this.name == null ? 0 : this.name.hashCode());\n" +
+                "result = 31 * result + (this.size == null ? 0 : this.size.hashCode());\n" +
+                "return result;\n",
+            code);
+        assertFalse(code.contains("Objects"));
+    }
+
+    @Test
+    public void generateWithoutProperties() {
+        final ImplementationDesc implementationDesc = ValueDesc
+            .builder()
+            .name("Value")
+            .packageName("com.example")
+            .properties(emptyList())
+            .build();
+
+        final MethodSpec methodSpec = generate(implementationDesc);
+
+        assertEquals("return 1;\n", methodSpec.code.toString());
+        assertEquals(1, methodSpec.annotations.size());
+    }
+
+    @Test
+    public void generateCached() {
+        final ImplementationDesc implementationDesc = ValueDesc
+            .builder()
+            .name("Value")
+            .packageName("com.example")
+            .properties(asList(
+                property("int", "id", false),
+                property("java.lang.String", "name", false)))
+            .cachedHash(true)
+            .build();
+
+        final TypeSpec.Builder builder = TypeSpec.classBuilder("Value");
+        generator.append(builder, SpecDesc.builder().build(), implementationDesc);
+        final TypeSpec typeSpec = builder.build();
+
+        assertEquals(1, typeSpec.fieldSpecs.size());
+        final FieldSpec fieldSpec = typeSpec.fieldSpecs.get(0);
+        assertEquals(HashCodeGenerator.CACHED_HASH_FIELD, fieldSpec.name);
+        assertTrue(fieldSpec.hasModifier(Modifier.TRANSIENT));
+        assertEquals(
+            "int result = this.cachedHashCode;\n" +
+                "if (result == 0) {\n" +
+                "  result = 1;\n" +
+                "  result = 31 * result + java.lang.Integer.hashCode(this.id);\n" +
+                "  result = 31 * result + (this.name == null ? 0 : this.name.hashCode());\n" +
+                "  this.cachedHashCode = result;\n" +
+                "}\n" +
+                "return result;\n",
+            typeSpec.methodSpecs.get(0).code.toString());
+    }
+
+    @Test
+    public void generateCachedWithoutProperties() {
+        final ImplementationDesc implementationDesc = ValueDesc
+            .builder()
+            .name("Value")
+            .packageName("com.example")
+            .properties(emptyList())
+            .cachedHash(true)
+            .build();
+
+        final TypeSpec.Builder builder = TypeSpec.classBuilder("Value");
+        generator.append(builder, SpecDesc.builder().build(), implementationDesc);
+        final TypeSpec typeSpec = builder.build();
+
+        assertTrue(typeSpec.fieldSpecs.isEmpty());
+        assertEquals("return 1;\n", typeSpec.methodSpecs.get(0).code.toString());
+    }
+
+    private MethodSpec generate(ImplementationDesc implementationDesc) {
+        final TypeSpec.Builder builder = TypeSpec.classBuilder("Value");
+        generator.append(builder, SpecDesc.builder().build(), implementationDesc);
+        return builder.build().methodSpecs.get(0);
+    }
+
+    private static PropertyDesc property(String type, String name, boolean optional) {
+        return PropertyDesc
+            .builder()
+            .type(type)
+            .name(name)
+            .optional(optional)
+            .build();
+    }
+}
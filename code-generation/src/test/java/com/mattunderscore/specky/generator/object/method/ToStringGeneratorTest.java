@@ -0,0 +1,178 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky.generator.object.method;
+
+import static com.mattunderscore.specky.generator.object.method.ToStringGenerator.COMMA_AND_SPACE_SEPARATOR;
+import static com.mattunderscore.specky.generator.object.method.ToStringGenerator.SIMPLE_PROPERTY_FORMATTER;
+import static com.mattunderscore.specky.generator.object.method.ToStringGenerator.SQUARE_BRACKETS;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import javax.lang.model.element.Modifier;
+
+import org.junit.Test;
+
+import com.mattunderscore.specky.model.ImplementationDesc;
+import com.mattunderscore.specky.model.PropertyDesc;
+import com.mattunderscore.specky.model.SpecDesc;
+import com.mattunderscore.specky.model.ValueDesc;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.TypeSpec;
+
+/**
+ * Unit tests for {@link ToStringGenerator}.
+ *
+ * @author Matt Champion on 16/10/2017
+ */
+public final class ToStringGeneratorTest {
+    private final ToStringGenerator generator =
+        new ToStringGenerator(SQUARE_BRACKETS, COMMA_AND_SPACE_SEPARATOR, SIMPLE_PROPERTY_FORMATTER);
+
+    @Test
+    public void generate() {
+        final ImplementationDesc nested = ValueDesc
+            .builder()
+            .name("Nested")
+            .packageName("com.example")
+            .properties(emptyList())
+            .build();
+        final ImplementationDesc implementationDesc = ValueDesc
+            .builder()
+            .name("Value")
+            .packageName("com.example")
+            .properties(asList(
+                property("int", "id"),
+                property("com.example.Nested", "nested"),
+                property("java.lang.String", "name")))
+            .build();
+
+        final TypeSpec typeSpec = generate(
+            SpecDesc.builder().implementations(asList(nested, implementationDesc)).build(),
+            implementationDesc);
+
+        assertTrue(typeSpec.fieldSpecs.isEmpty());
+        assertEquals(
+            "builder.append(\"Value[id=\").append(this.id);\n" +
+                "builder.append(\", nested=\");\n" +
+                "if (this.nested == null) {\n" +
+                "  builder.append(\"null\");\n" +
+                "}\n" +
+                "else {\n" +
+                "  this.nested.appendTo(builder);\n" +
+                "}\n" +
+                "builder.append(\", name=\").append(this.name);\n" +
+                "return builder.append(\"]\");\n",
+            typeSpec.methodSpecs.get(0).code.toString());
+        assertEquals(
+            "return appendTo(new java.lang.StringBuilder(74)).toString();\n",
+            typeSpec.methodSpecs.get(1).code.toString());
+    }
+
+    @Test
+    public void generateCached() {
+        final ImplementationDesc implementationDesc = ValueDesc
+            .builder()
+            .name("Value")
+            .packageName("com.example")
+            .properties(singletonList(property("int", "id")))
+            .cachedString(true)
+            .build();
+
+        final TypeSpec typeSpec = generate(SpecDesc.builder().build(), implementationDesc);
+
+        assertEquals(1, typeSpec.fieldSpecs.size());
+        final FieldSpec fieldSpec = typeSpec.fieldSpecs.get(0);
+        assertEquals(ToStringGenerator.CACHED_STRING_FIELD, fieldSpec.name);
+        assertTrue(fieldSpec.hasModifier(Modifier.TRANSIENT));
+        assertEquals(
+            "if (this.cachedString != null) {\n" +
+                "  return builder.append(this.cachedString);\n" +
+                "}\n" +
+                "builder.append(\"Value[id=\").append(this.id);\n" +
+                "return builder.append(\"]\");\n",
+            typeSpec.methodSpecs.get(0).code.toString());
+        assertEquals(
+            "java.lang.String string = this.cachedString;\n" +
+                "if (string == null) {\n" +
+                "  string = appendTo(new java.lang.StringBuilder(26)).toString();\n" +
+                "  this.cachedString = string;\n" +
+                "}\n" +
+                "return string;\n",
+            typeSpec.methodSpecs.get(1).code.toString());
+    }
+
+    @Test
+    public void generateWithoutProperties() {
+        final ImplementationDesc implementationDesc = ValueDesc
+            .builder()
+            .name("Value")
+            .packageName("com.example")
+            .properties(emptyList())
+            .cachedString(true)
+            .build();
+
+        final TypeSpec typeSpec = generate(SpecDesc.builder().build(), implementationDesc);
+
+        assertTrue(typeSpec.fieldSpecs.isEmpty());
+        assertEquals("return builder.append(\"Value\");\n", typeSpec.methodSpecs.get(0).code.toString());
+        assertEquals("return \"Value\";\n", typeSpec.methodSpecs.get(1).code.toString());
+    }
+
+    @Test
+    public void propertyFormatter() {
+        final ToStringGenerator colonGenerator = new ToStringGenerator(
+            SQUARE_BRACKETS,
+            COMMA_AND_SPACE_SEPARATOR,
+            propertyDesc -> propertyDesc.getName() + ": ");
+        final ImplementationDesc implementationDesc = ValueDesc
+            .builder()
+            .name("Value")
+            .packageName("com.example")
+            .properties(singletonList(property("int", "id")))
+            .build();
+
+        final TypeSpec.Builder builder = TypeSpec.classBuilder("Value");
+        colonGenerator.append(builder, SpecDesc.builder().build(), implementationDesc);
+
+        assertTrue(builder.build().methodSpecs.get(0).code.toString().contains("\"Value[id: \""));
+    }
+
+    private TypeSpec generate(SpecDesc specDesc, ImplementationDesc implementationDesc) {
+        final TypeSpec.Builder builder = TypeSpec.classBuilder("Value");
+        generator.append(builder, specDesc, implementationDesc);
+        return builder.build();
+    }
+
+    private static PropertyDesc property(String type, String name) {
+        return PropertyDesc
+            .builder()
+            .type(type)
+            .name(name)
+            .build();
+    }
+}
@@ -144,6 +144,8 @@ opts
     :   OPTIONS LINE_BREAK
         (INLINE_WS? construction LINE_BREAK)?
         (INLINE_WS? WITH_MODIFICATION LINE_BREAK)?
+        (INLINE_WS? CACHED_HASH LINE_BREAK)?
+        (INLINE_WS? CACHED_STRING LINE_BREAK)?
     ;
 
 supertypes
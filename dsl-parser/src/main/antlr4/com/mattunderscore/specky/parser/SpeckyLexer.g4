@@ -88,6 +88,14 @@ WITH_MODIFICATION
     :   'with modification'
     ;
 
+CACHED_HASH
+    :   'cached hash'
+    ;
+
+CACHED_STRING
+    :   'cached string'
+    ;
+
 OPTIONAL
     :   'optional'
     ;
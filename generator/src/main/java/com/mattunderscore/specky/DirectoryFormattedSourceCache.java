@@ -0,0 +1,248 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Collections.emptyList;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * {@link FormattedSourceCache} that stores each formatted source in a file of a directory, named by a hash of the
+ * formatter and source. The total size of the files is bounded, the least recently used entries are evicted first.
+ * The last modified time of an entry is updated when it is used, so the order is kept between builds. Entries that
+ * cannot be read are treated as missing.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+@ThreadSafe
+public final class DirectoryFormattedSourceCache implements FormattedSourceCache {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private final Path directory;
+    private final String salt;
+    private final long maximumSize;
+    private final AtomicInteger hits = new AtomicInteger(0);
+    private final AtomicInteger misses = new AtomicInteger(0);
+    private final AtomicInteger evictions = new AtomicInteger(0);
+    private Map<String, Long> entrySizes;
+    private long size;
+
+    /**
+     * Constructor.
+     * @param directory the directory to store the formatted source in
+     * @param salt included in the keys, for example the version of the tool that formatted the source
+     * @param maximumSize the maximum number of bytes stored
+     */
+    public DirectoryFormattedSourceCache(Path directory, String salt, long maximumSize) {
+        if (maximumSize < 0L) {
+            throw new IllegalArgumentException("The maximum size cannot be negative");
+        }
+
+        this.directory = directory;
+        this.salt = salt;
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public Optional<String> get(String formatter, String source) {
+        final String key = key(formatter, source);
+        synchronized (this) {
+            if (entrySizes().get(key) == null) {
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+        }
+
+        final Path entry = directory.resolve(key);
+        try {
+            final String formattedSource = new String(Files.readAllBytes(entry), UTF_8);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.incrementAndGet();
+            return Optional.of(formattedSource);
+        }
+        catch (IOException e) {
+            synchronized (this) {
+                final Long entrySize = entrySizes().remove(key);
+                if (entrySize != null) {
+                    size -= entrySize;
+                }
+            }
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void put(String formatter, String source, String formattedSource) {
+        final String key = key(formatter, source);
+        final byte[] bytes = formattedSource.getBytes(UTF_8);
+        if (bytes.length > maximumSize) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(directory);
+            final Path temporaryFile = Files.createTempFile(directory, key, TEMPORARY_SUFFIX);
+            Files.write(temporaryFile, bytes);
+            Files.move(temporaryFile, directory.resolve(key), REPLACE_EXISTING, ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            // The cache is only an optimisation, the next build will format the source again
+            return;
+        }
+
+        synchronized (this) {
+            final Long previousSize = entrySizes().put(key, (long) bytes.length);
+            size += bytes.length - (previousSize == null ? 0L : previousSize);
+            evict();
+        }
+    }
+
+    /**
+     * @return the number of formatted sources found in the cache
+     */
+    public int getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of formatted sources not found in the cache
+     */
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of formatted sources evicted from the cache
+     */
+    public int getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+        return hits.get() + " hits, " +
+            misses.get() + " misses, " +
+            evictions.get() + " evictions";
+    }
+
+    private Map<String, Long> entrySizes() {
+        if (entrySizes == null) {
+            entrySizes = new LinkedHashMap<>(16, 0.75F, true);
+            size = 0L;
+            for (final Path entry : readEntries()) {
+                try {
+                    final long entrySize = Files.size(entry);
+                    entrySizes.put(entry.getFileName().toString(), entrySize);
+                    size += entrySize;
+                }
+                catch (IOException e) {
+                    // Ignore entries that cannot be read
+                }
+            }
+            evict();
+        }
+        return entrySizes;
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<String, Long>> leastRecentlyUsed = entrySizes.entrySet().iterator();
+        while (size > maximumSize && leastRecentlyUsed.hasNext()) {
+            final Map.Entry<String, Long> entry = leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            size -= entry.getValue();
+            evictions.incrementAndGet();
+            try {
+                Files.deleteIfExists(directory.resolve(entry.getKey()));
+            }
+            catch (IOException e) {
+                // The entry is forgotten, it will be found again the next time the directory is read
+            }
+        }
+    }
+
+    private List<Path> readEntries() {
+        if (!Files.isDirectory(directory)) {
+            return emptyList();
+        }
+
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths
+                .filter(Files::isRegularFile)
+                .filter(path -> !path.getFileName().toString().endsWith(TEMPORARY_SUFFIX))
+                .sorted(comparing(DirectoryFormattedSourceCache::lastModified))
+                .collect(toList());
+        }
+        catch (IOException e) {
+            return emptyList();
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        }
+        catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private String key(String formatter, String source) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        final byte[] hash = digest.digest((salt + '\0' + formatter + '\0' + source).getBytes(UTF_8));
+        final char[] chars = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(hash[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX_DIGITS[hash[i] & 0xf];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,76 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import java.security.CodeSource;
+
+import com.google.googlejavaformat.java.Formatter;
+import com.google.googlejavaformat.java.FormatterException;
+import com.google.googlejavaformat.java.JavaFormatterOptions;
+import com.google.googlejavaformat.java.JavaFormatterOptions.JavadocFormatter;
+import com.google.googlejavaformat.java.JavaFormatterOptions.SortImports;
+import com.google.googlejavaformat.java.JavaFormatterOptions.Style;
+
+/**
+ * Formats source code with google-java-format, in the AOSP style with sorted imports.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+public final class GoogleSourceFormatter implements SourceFormatter {
+    private static final JavadocFormatter JAVADOC_FORMATTER = JavadocFormatter.NONE;
+    private static final Style STYLE = Style.AOSP;
+    private static final SortImports SORT_IMPORTS = SortImports.ALSO;
+    private final Formatter formatter =
+        new Formatter(new JavaFormatterOptions(JAVADOC_FORMATTER, STYLE, SORT_IMPORTS));
+
+    @Override
+    public String format(String source) throws FormatterException {
+        return formatter.formatSource(source);
+    }
+
+    /**
+     * @return the version of google-java-format and the options it formats with
+     */
+    @Override
+    public String getVersion() {
+        return formatterVersion() + " " + JAVADOC_FORMATTER + " " + STYLE + " " + SORT_IMPORTS;
+    }
+
+    @Override
+    public String toString() {
+        return "google";
+    }
+
+    private static String formatterVersion() {
+        final String version = Formatter.class.getPackage().getImplementationVersion();
+        if (version != null) {
+            return version;
+        }
+
+        // Fall back to the location of google-java-format, the name of the jar includes the version
+        final CodeSource codeSource = Formatter.class.getProtectionDomain().getCodeSource();
+        return codeSource == null ? "unknown" : String.valueOf(codeSource.getLocation());
+    }
+}
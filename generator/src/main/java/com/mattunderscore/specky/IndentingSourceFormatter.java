@@ -0,0 +1,89 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+/**
+ * Normalises the layout of source code generated by JavaPoet without parsing it. JavaPoet already orders the imports
+ * and lays out the code consistently, so only the indentation is widened to four spaces, trailing whitespace is
+ * removed and consecutive blank lines are collapsed. Much faster than {@link GoogleSourceFormatter}, long lines are
+ * not wrapped.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+public final class IndentingSourceFormatter implements SourceFormatter {
+    private static final int JAVAPOET_INDENT = 2;
+    private static final int INDENT = 4;
+
+    @Override
+    public String format(String source) {
+        final StringBuilder formatted = new StringBuilder(source.length() + source.length() / 4);
+        boolean previousBlank = true;
+        int lineStart = 0;
+        while (lineStart < source.length()) {
+            int lineEnd = source.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = source.length();
+            }
+
+            int contentStart = lineStart;
+            while (contentStart < lineEnd && source.charAt(contentStart) == ' ') {
+                contentStart++;
+            }
+            int contentEnd = lineEnd;
+            while (contentEnd > contentStart && Character.isWhitespace(source.charAt(contentEnd - 1))) {
+                contentEnd--;
+            }
+
+            if (contentStart == contentEnd) {
+                if (!previousBlank) {
+                    formatted.append('\n');
+                }
+                previousBlank = true;
+            }
+            else {
+                final int leadingSpaces = contentStart - lineStart;
+                final int indent = leadingSpaces / JAVAPOET_INDENT * INDENT + leadingSpaces % JAVAPOET_INDENT;
+                for (int i = 0; i < indent; i++) {
+                    formatted.append(' ');
+                }
+                formatted.append(source, contentStart, contentEnd).append('\n');
+                previousBlank = false;
+            }
+
+            lineStart = lineEnd + 1;
+        }
+
+        if (previousBlank && formatted.length() > 0) {
+            formatted.setLength(formatted.length() - 1);
+        }
+
+        return formatted.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "fast";
+    }
+}
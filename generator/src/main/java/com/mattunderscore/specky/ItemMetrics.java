@@ -0,0 +1,86 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import net.jcip.annotations.Immutable;
+
+/**
+ * Metrics of a step of the pipeline for a single file or type.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+@Immutable
+public final class ItemMetrics {
+    private final String step;
+    private final String item;
+    private final long wallNanos;
+    private final long allocatedBytes;
+
+    /**
+     * Constructor.
+     */
+    /*package*/ ItemMetrics(String step, String item, long wallNanos, long allocatedBytes) {
+        this.step = step;
+        this.item = item;
+        this.wallNanos = wallNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * @return the name of the step, for example parse or format
+     */
+    public String getStep() {
+        return step;
+    }
+
+    /**
+     * @return the file or type
+     */
+    public String getItem() {
+        return item;
+    }
+
+    /**
+     * @return the wall time of the step in nanoseconds
+     */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * @return the bytes allocated by the step, zero if the JVM does not measure allocation
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return step + " " + item + ": " + NANOSECONDS.toMillis(wallNanos) + " ms, " +
+            allocatedBytes / 1024 + " KiB allocated";
+    }
+}
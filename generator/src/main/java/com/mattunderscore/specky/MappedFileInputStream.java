@@ -0,0 +1,187 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * {@link ANTLRInputStream} that is not read until it is first used. The file is decoded from a memory mapped region
+ * and the decoded characters can be released once they are no longer needed. The content can be digested from the
+ * memory mapped region without decoding it. The digest is kept so the file is only digested again when it is decoded
+ * and then it is the digest of the bytes that were decoded.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+@NotThreadSafe
+public final class MappedFileInputStream extends ANTLRInputStream implements FileContentStream {
+    private final Path file;
+    private byte[] contentDigest;
+    private boolean decoded;
+    private boolean loaded;
+
+    /**
+     * Constructor.
+     */
+    public MappedFileInputStream(Path file) {
+        this.file = file;
+        name = file.toString();
+    }
+
+    @Override
+    public byte[] getContentDigest() {
+        if (contentDigest == null) {
+            try (FileChannel channel = FileChannel.open(file, READ)) {
+                final MessageDigest digest = newDigest();
+                digest.update(channel.map(READ_ONLY, 0, channel.size()));
+                contentDigest = digest.digest();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException("The file " + file + " cannot be read", e);
+            }
+        }
+        return contentDigest.clone();
+    }
+
+    /**
+     * Release the decoded characters. The file will be read again if the stream is used after being released.
+     */
+    @Override
+    public void releaseCharacters() {
+        data = null;
+        n = 0;
+        p = 0;
+        loaded = false;
+    }
+
+    @Override
+    public void reset() {
+        load();
+        super.reset();
+    }
+
+    @Override
+    public void consume() {
+        load();
+        super.consume();
+    }
+
+    @Override
+    public int LA(int i) {
+        load();
+        return super.LA(i);
+    }
+
+    @Override
+    public int LT(int i) {
+        load();
+        return super.LT(i);
+    }
+
+    @Override
+    public int size() {
+        load();
+        return super.size();
+    }
+
+    @Override
+    public void seek(int index) {
+        load();
+        super.seek(index);
+    }
+
+    @Override
+    public String getText(Interval interval) {
+        load();
+        return super.getText(interval);
+    }
+
+    @Override
+    public String toString() {
+        load();
+        return super.toString();
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            // Copy the bytes so the digest is of the same bytes as the characters
+            final byte[] bytes = new byte[(int) channel.size()];
+            channel.map(READ_ONLY, 0, bytes.length).get(bytes);
+            final byte[] bytesDigest = newDigest().digest(bytes);
+            if (decoded && !Arrays.equals(contentDigest, bytesDigest)) {
+                throw new IllegalStateException("The file " + file + " changed while it was being read");
+            }
+
+            final CharBuffer characters = StandardCharsets.UTF_8
+                .newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                .decode(ByteBuffer.wrap(bytes));
+            data = characters.array();
+            n = characters.remaining();
+            p = 0;
+            contentDigest = bytesDigest;
+            decoded = true;
+            loaded = true;
+        }
+        catch (CharacterCodingException e) {
+            throw new UncheckedIOException("The file " + file + " cannot be decoded", e);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("The file " + file + " cannot be read", e);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static java.util.Optional.ofNullable;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * {@link FormattedSourceCache} that keeps the formatted source in memory. The entries not used since the last time
+ * the used entries were retained can be removed, so a long running generator only keeps the formatted source of the
+ * files it last wrote.
+ *
+ * @author Matt Champion 18/10/2017
+ */
+@ThreadSafe
+public final class MemoryFormattedSourceCache implements FormattedSourceCache {
+    private final ConcurrentMap<String, String> entries = new ConcurrentHashMap<>();
+    private final Set<String> usedKeys = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger hits = new AtomicInteger(0);
+    private final AtomicInteger misses = new AtomicInteger(0);
+
+    @Override
+    public Optional<String> get(String formatter, String source) {
+        final String key = key(formatter, source);
+        usedKeys.add(key);
+        final Optional<String> formattedSource = ofNullable(entries.get(key));
+        if (formattedSource.isPresent()) {
+            hits.incrementAndGet();
+        }
+        else {
+            misses.incrementAndGet();
+        }
+        return formattedSource;
+    }
+
+    @Override
+    public void put(String formatter, String source, String formattedSource) {
+        final String key = key(formatter, source);
+        usedKeys.add(key);
+        entries.put(key, formattedSource);
+    }
+
+    /**
+     * Remove the entries that have not been used since the last time this was called.
+     */
+    public void retainUsedEntries() {
+        entries.keySet().retainAll(usedKeys);
+        usedKeys.clear();
+    }
+
+    /**
+     * @return the number of formatted sources found in the cache
+     */
+    public int getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of formatted sources not found in the cache
+     */
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of formatted sources in the cache
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public String toString() {
+        return hits.get() + " hits, " +
+            misses.get() + " misses, " +
+            entries.size() + " entries";
+    }
+
+    private static String key(String formatter, String source) {
+        return formatter + '\0' + source;
+    }
+}
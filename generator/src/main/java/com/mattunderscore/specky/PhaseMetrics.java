@@ -0,0 +1,87 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import net.jcip.annotations.Immutable;
+
+/**
+ * Metrics of a phase of the pipeline.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+@Immutable
+public final class PhaseMetrics {
+    private final String name;
+    private final long wallNanos;
+    private final long allocatedBytes;
+    private final int items;
+
+    /**
+     * Constructor.
+     */
+    /*package*/ PhaseMetrics(String name, long wallNanos, long allocatedBytes, int items) {
+        this.name = name;
+        this.wallNanos = wallNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.items = items;
+    }
+
+    /**
+     * @return the name of the phase
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the wall time of the phase in nanoseconds
+     */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * @return the bytes allocated by the phase, zero if the JVM does not measure allocation
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return the number of files or types processed by the phase
+     */
+    public int getItems() {
+        return items;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + NANOSECONDS.toMillis(wallNanos) + " ms, " +
+            allocatedBytes / 1024 + " KiB allocated, " +
+            items + " items";
+    }
+}
@@ -0,0 +1,189 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static java.util.Comparator.comparingLong;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Records the wall time, allocated bytes and number of items of each phase of the pipeline, and of the steps for each
+ * file and type. Allocation is measured per thread, so the steps running on other threads are added to the phase.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+@ThreadSafe
+public final class PipelineMetrics {
+    /**
+     * Metrics that record nothing.
+     */
+    public static final PipelineMetrics NONE = new PipelineMetrics(false);
+    private static final Runnable NO_OP = () -> { };
+    private final boolean enabled;
+    private final Queue<PhaseMetrics> phases = new ConcurrentLinkedQueue<>();
+    private final Queue<ItemMetrics> items = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructor.
+     */
+    public PipelineMetrics() {
+        this(true);
+    }
+
+    private PipelineMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the metrics of each phase in the order they completed
+     */
+    public List<PhaseMetrics> getPhases() {
+        return Collections.unmodifiableList(new ArrayList<>(phases));
+    }
+
+    /**
+     * @return the total metrics of each step, summed over the files and types
+     */
+    public List<ItemMetrics> getStepTotals() {
+        final Map<String, List<ItemMetrics>> itemsByStep = items
+            .stream()
+            .collect(groupingBy(ItemMetrics::getStep, LinkedHashMap::new, toList()));
+
+        return itemsByStep
+            .entrySet()
+            .stream()
+            .map(entry -> new ItemMetrics(
+                entry.getKey(),
+                entry.getValue().size() + " items",
+                entry.getValue().stream().mapToLong(ItemMetrics::getWallNanos).sum(),
+                entry.getValue().stream().mapToLong(ItemMetrics::getAllocatedBytes).sum()))
+            .collect(toList());
+    }
+
+    /**
+     * @return the slowest steps for single files and types, slowest first
+     */
+    public List<ItemMetrics> getSlowestItems(int count) {
+        return items
+            .stream()
+            .sorted(comparingLong(ItemMetrics::getWallNanos).reversed())
+            .limit(count)
+            .collect(toList());
+    }
+
+    /**
+     * @return a report of the phases, the step totals and the slowest items, one per line
+     */
+    public String report(int slowestItems) {
+        final StringBuilder report = new StringBuilder("Phases:");
+        getPhases().forEach(phase -> report.append("\n  ").append(phase));
+        report.append("\nSteps:");
+        getStepTotals().forEach(step -> report.append("\n  ").append(step));
+        report.append("\nSlowest:");
+        getSlowestItems(slowestItems).forEach(item -> report.append("\n  ").append(item));
+        return report.toString();
+    }
+
+    /**
+     * Start a phase. The phase must be ended on the same thread.
+     */
+    /*package*/ Phase beginPhase(String name) {
+        return new Phase(name);
+    }
+
+    /**
+     * A phase of the pipeline that is running.
+     */
+    /*package*/ final class Phase {
+        private final String name;
+        private final long threadId = Thread.currentThread().getId();
+        private final long startNanos = enabled ? System.nanoTime() : 0L;
+        private final long startBytes = enabled ? allocatedBytes() : 0L;
+        private final AtomicLong otherThreadBytes = new AtomicLong(0L);
+
+        private Phase(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Start a step for a file or type. The returned runnable must be run on the same thread to end the step.
+         */
+        /*package*/ Runnable beginItem(String step, String item) {
+            if (!enabled) {
+                return NO_OP;
+            }
+
+            final long itemThreadId = Thread.currentThread().getId();
+            final long itemStartNanos = System.nanoTime();
+            final long itemStartBytes = allocatedBytes();
+            return () -> {
+                final long itemBytes = allocatedBytes() - itemStartBytes;
+                if (itemThreadId != threadId) {
+                    otherThreadBytes.addAndGet(itemBytes);
+                }
+                items.add(new ItemMetrics(step, item, System.nanoTime() - itemStartNanos, itemBytes));
+            };
+        }
+
+        /**
+         * End the phase.
+         */
+        /*package*/ void end(int itemCount) {
+            if (!enabled) {
+                return;
+            }
+
+            phases.add(new PhaseMetrics(
+                name,
+                System.nanoTime() - startNanos,
+                allocatedBytes() - startBytes + otherThreadBytes.get(),
+                itemCount));
+        }
+    }
+
+    private static long allocatedBytes() {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+            if (allocation.isThreadAllocatedMemorySupported() && allocation.isThreadAllocatedMemoryEnabled()) {
+                return allocation.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return 0L;
+    }
+}
@@ -0,0 +1,127 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import com.squareup.javapoet.JavaFile;
+
+/**
+ * Compiles generated Java code in memory. The source code and the compiled classes are never written to the file
+ * system, the compiled classes are loaded from memory by the returned class loader.
+ *
+ * @author Matt Champion on 16/10/2017
+ */
+public final class SpeckyCompilingContext {
+    private final AtomicBoolean consumed = new AtomicBoolean(false);
+    private final List<JavaFile> javaFiles;
+    private final PipelineMetrics metrics;
+    private volatile ClassLoader parentClassLoader = SpeckyCompilingContext.class.getClassLoader();
+    private volatile List<Path> classpath;
+
+    /*package*/ SpeckyCompilingContext(List<JavaFile> javaFiles, PipelineMetrics metrics) {
+        this.javaFiles = javaFiles;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Set the parent of the class loader for the compiled classes. If not set the class loader of this class is
+     * used.
+     */
+    public SpeckyCompilingContext parentClassLoader(ClassLoader classLoader) {
+        parentClassLoader = classLoader;
+        return this;
+    }
+
+    /**
+     * Set the classpath to compile the files against. If not set the classpath of the running JVM is used.
+     */
+    public SpeckyCompilingContext classpath(List<Path> paths) {
+        classpath = paths;
+        return this;
+    }
+
+    /**
+     * Compile the files.
+     * @return a class loader for the compiled classes
+     * @throws IllegalStateException if has been called before or no compiler is available
+     * @throws CompilationError if the files could not be compiled
+     */
+    public ClassLoader compile() throws CompilationError {
+        if (consumed.compareAndSet(false, true)) {
+            final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            if (compiler == null) {
+                throw new IllegalStateException("No Java compiler is available, a JDK is required");
+            }
+
+            final PipelineMetrics.Phase phase = metrics.beginPhase("compile");
+            final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            final StandardJavaFileManager standardFileManager =
+                compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8);
+            try (InMemoryFileManager fileManager = new InMemoryFileManager(standardFileManager)) {
+                if (classpath != null) {
+                    standardFileManager.setLocation(
+                        StandardLocation.CLASS_PATH,
+                        classpath.stream().map(Path::toFile).collect(toList()));
+                }
+
+                final List<JavaFileObject> sources = new ArrayList<>(javaFiles.size());
+                javaFiles.forEach(javaFile -> sources.add(javaFile.toJavaFileObject()));
+
+                final boolean success = compiler
+                    .getTask(null, fileManager, diagnostics, singletonList("-proc:none"), null, sources)
+                    .call();
+                phase.end(javaFiles.size());
+
+                if (!success) {
+                    throw new CompilationError(diagnostics.getDiagnostics());
+                }
+
+                return fileManager.getClassLoader(parentClassLoader);
+            }
+            catch (IOException e) {
+                throw new IllegalStateException("Failed to compile files", e);
+            }
+        }
+        else {
+            throw new IllegalStateException("Context has already been compiled");
+        }
+    }
+}
@@ -0,0 +1,358 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singletonList;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import com.google.googlejavaformat.java.FormatterException;
+import com.squareup.javapoet.JavaFile;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Long running generator. Keeps the parser, generator and formatter loaded between builds and the models of the
+ * specification files, generated types and formatted source code in memory, so only changed files are parsed, only
+ * the types affected by them are generated and formatted and only changed source files are written.
+ * <p>
+ * The specification directories can be watched to generate the source code whenever a specification file changes.
+ * When run as a process, commands are read from standard input one per line and a single line is written to
+ * standard output for each outcome.
+ * <ul>
+ *     <li>{@code generate} generates the source code</li>
+ *     <li>{@code watch} generates the source code whenever a specification file changes</li>
+ *     <li>{@code affected <file>} lists the types affected by changes to a specification file</li>
+ *     <li>{@code quit} stops the process</li>
+ * </ul>
+ * Outcomes start with {@code ok} or {@code error}. The line {@code ready} is written once commands are accepted.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+@ThreadSafe
+public final class SpeckyDaemon implements AutoCloseable {
+    private static final String SPEC_SUFFIX = ".spec";
+    private static final long SETTLE_MILLIS = 20L;
+    private static final String AFFECTED_COMMAND = "affected ";
+    private final List<Path> specDirectories;
+    private final Path targetPath;
+    private final MemoryFileModelCache fileModelCache = new MemoryFileModelCache();
+    private final MemoryFormattedSourceCache formattedSourceCache = new MemoryFormattedSourceCache();
+    private Map<String, JavaFile> generatedTypes = emptyMap();
+    private Set<Path> writtenFiles = emptySet();
+    private DependencyGraph dependencyGraph = DependencyGraph.EMPTY;
+    private WatchService watchService;
+    private Thread watcher;
+
+    /**
+     * Constructor.
+     * @param specDirectories the directories containing the specification files
+     * @param targetPath the directory to write the source code to
+     */
+    public SpeckyDaemon(List<Path> specDirectories, Path targetPath) {
+        this.specDirectories = specDirectories
+            .stream()
+            .map(path -> path.toAbsolutePath().normalize())
+            .collect(toList());
+        this.targetPath = targetPath;
+    }
+
+    /**
+     * Generate the source code for the specification files. Unchanged source files are not written again and the
+     * source files this daemon wrote for types that no longer exist are deleted. Other files in the target path are
+     * left untouched.
+     * @throws IOException if the files cannot be read or written
+     * @throws ParsingError if there are errors in the specification files
+     * @throws FormatterException if the generated code cannot be formatted
+     */
+    public synchronized WriteSummary generate() throws IOException, ParsingError, FormatterException {
+        final List<Path> specFiles = findSpecFiles();
+        fileModelCache.retainFiles(specFiles);
+
+        final SpeckyFileStreamingContext streamingContext = new SpeckyFileStreamingContext().openFilesLazily();
+        specFiles.forEach(streamingContext::addFileToParse);
+
+        final SpeckyGeneratingContext generatingContext = streamingContext
+            .open()
+            .parseConcurrently()
+            .fileModelCache(fileModelCache)
+            .parse();
+        final SpeckyWritingContext writingContext = generatingContext
+            .previousGeneration(generatedTypes)
+            .generateConcurrently()
+            .generate();
+        dependencyGraph = generatingContext.getDependencyGraph();
+
+        final WriteSummary summary = writingContext
+            .targetPath(targetPath)
+            .formattedSourceCache(formattedSourceCache)
+            .writeConcurrently()
+            .skipUnchangedFiles()
+            .deleteStaleFiles(writtenFiles)
+            .write();
+        writtenFiles = new HashSet<>(summary.getFiles());
+        formattedSourceCache.retainUsedEntries();
+        generatedTypes = writingContext
+            .getJavaFiles()
+            .stream()
+            .collect(toMap(javaFile -> javaFile.packageName + "." + javaFile.typeSpec.name, identity()));
+        return summary;
+    }
+
+    /**
+     * @return the dependencies of the sections and types of the last generated specification
+     */
+    public synchronized DependencyGraph getDependencyGraph() {
+        return dependencyGraph;
+    }
+
+    /**
+     * Watch the specification directories, generating the source code whenever a specification file changes. The
+     * outcome of each generation is passed to the listener from the watching thread.
+     * @throws IOException if the directories cannot be watched
+     * @throws IllegalStateException if the directories are already being watched
+     */
+    public synchronized void watch(Consumer<String> listener) throws IOException {
+        if (watchService != null) {
+            throw new IllegalStateException("Already watching the specification directories");
+        }
+
+        final WatchService service = FileSystems.getDefault().newWatchService();
+        try {
+            for (final Path specDirectory : specDirectories) {
+                registerDirectories(service, specDirectory);
+            }
+        }
+        catch (IOException e) {
+            service.close();
+            throw e;
+        }
+
+        watchService = service;
+        watcher = new Thread(() -> watchForChanges(service, listener), "specky-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Read commands from the reader and write the outcomes to the output until the {@code quit} command or the end of
+     * the input.
+     * @throws IOException if the commands cannot be read
+     */
+    public void serve(BufferedReader commands, PrintStream output) throws IOException {
+        output.println("ready");
+        output.flush();
+
+        for (String command = commands.readLine(); command != null; command = commands.readLine()) {
+            switch (command.trim()) {
+                case "generate":
+                    report(output, generateOutcome());
+                    break;
+                case "watch":
+                    try {
+                        watch(outcome -> report(output, outcome));
+                        report(output, "ok watching");
+                    }
+                    catch (IOException | IllegalStateException e) {
+                        report(output, "error " + e.getMessage());
+                    }
+                    break;
+                case "quit":
+                    return;
+                default:
+                    if (command.trim().startsWith(AFFECTED_COMMAND)) {
+                        report(output, affectedOutcome(command.trim().substring(AFFECTED_COMMAND.length())));
+                    }
+                    else {
+                        report(output, "error unknown command " + command);
+                    }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watcher.interrupt();
+            watchService.close();
+            watchService = null;
+            watcher = null;
+        }
+    }
+
+    /**
+     * Run the generator as a process.
+     * @param args the directory to write the source code to followed by the specification directories
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: SpeckyDaemon <target directory> <specification directory>...");
+            return;
+        }
+
+        final List<Path> specDirectories = Stream
+            .of(Arrays.copyOfRange(args, 1, args.length))
+            .map(Paths::get)
+            .collect(toList());
+
+        try (SpeckyDaemon daemon = new SpeckyDaemon(specDirectories, Paths.get(args[0]))) {
+            daemon.serve(new BufferedReader(new InputStreamReader(System.in, UTF_8)), System.out);
+        }
+    }
+
+    private String generateOutcome() {
+        try {
+            return "ok " + generate();
+        }
+        catch (IOException | ParsingError | FormatterException | RuntimeException e) {
+            return "error " + e.getMessage();
+        }
+    }
+
+    private String affectedOutcome(String file) {
+        final Path path = Paths.get(file.trim()).toAbsolutePath().normalize();
+        return getDependencyGraph()
+            .getAffectedTypes(singletonList(path))
+            .stream()
+            .sorted()
+            .collect(joining(" ", "ok ", ""));
+    }
+
+    private void watchForChanges(WatchService service, Consumer<String> listener) {
+        try {
+            while (true) {
+                boolean changed = false;
+                try {
+                    // Wait for the changes of a save to settle before generating the source code
+                    for (WatchKey key = service.take(); key != null; key = service.poll(SETTLE_MILLIS, MILLISECONDS)) {
+                        changed |= processEvents(service, key);
+                    }
+                }
+                catch (ClosedWatchServiceException e) {
+                    throw e;
+                }
+                catch (RuntimeException e) {
+                    // Keep watching, the next change may succeed
+                    listener.accept("error " + e.getMessage());
+                    continue;
+                }
+
+                if (changed) {
+                    listener.accept(generateOutcome());
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (ClosedWatchServiceException e) {
+            // Stopped watching
+        }
+        catch (IOException e) {
+            listener.accept("error " + e.getMessage());
+        }
+    }
+
+    private boolean processEvents(WatchService service, WatchKey key) throws IOException {
+        boolean changed = false;
+        for (final WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                changed = true;
+                continue;
+            }
+
+            final Path path = ((Path) key.watchable()).resolve((Path) event.context());
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                registerDirectories(service, path);
+                changed = true;
+            }
+            else if (path.toString().endsWith(SPEC_SUFFIX)) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    private static void registerDirectories(WatchService service, Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (final Path path : paths.filter(Files::isDirectory).collect(toList())) {
+                path.register(service, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+            }
+        }
+    }
+
+    private List<Path> findSpecFiles() throws IOException {
+        final List<Path> specFiles = new ArrayList<>();
+        for (final Path specDirectory : specDirectories) {
+            try (Stream<Path> paths = Files.walk(specDirectory)) {
+                paths
+                    .filter(path -> path.toString().endsWith(SPEC_SUFFIX))
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .forEach(specFiles::add);
+            }
+        }
+        return specFiles;
+    }
+
+    private static void report(PrintStream output, String outcome) {
+        synchronized (output) {
+            output.println(outcome);
+            output.flush();
+        }
+    }
+}
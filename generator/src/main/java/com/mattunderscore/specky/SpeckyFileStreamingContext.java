@@ -24,8 +24,11 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
 
 package com.mattunderscore.specky;
 
+import static java.nio.file.StandardOpenOption.READ;
+
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -43,6 +46,8 @@ public final class SpeckyFileStreamingContext {
     private final List<Path> filesToParse = new ArrayList<>();
     private final AtomicBoolean consumed = new AtomicBoolean(false);
     private final ReportingFileErrorListener errorListener = new ReportingFileErrorListener(System.err);
+    private volatile boolean openLazily;
+    private volatile PipelineMetrics metrics = PipelineMetrics.NONE;
 
     /**
      * Constructor.
@@ -58,6 +63,24 @@ public final class SpeckyFileStreamingContext {
         return this;
     }
 
+    /**
+     * Open each file right before it is parsed instead of reading every file when the context is opened. The files
+     * are decoded as UTF-8 from a memory mapped region and the decoded characters released once the specification
+     * has been parsed.
+     */
+    public SpeckyFileStreamingContext openFilesLazily() {
+        openLazily = true;
+        return this;
+    }
+
+    /**
+     * Record the metrics of the pipeline. The metrics are passed on to the later contexts.
+     */
+    public SpeckyFileStreamingContext metrics(PipelineMetrics pipelineMetrics) {
+        metrics = pipelineMetrics;
+        return this;
+    }
+
     /**
      * Parse files.
      * @throws IllegalStateException if has been called before
@@ -65,38 +88,73 @@ public final class SpeckyFileStreamingContext {
     public synchronized SpeckyParsingContext open() throws IOException {
         if (consumed.compareAndSet(false, true)) {
 
+            final PipelineMetrics.Phase phase = metrics.beginPhase("open");
             final List<FileContext> fileContexts = new ArrayList<>();
             for (final Path path : filesToParse) {
-                final FileContext context = new FileContext();
-                context.setFile(path);
-                final InputStream input;
+                final Runnable endItem = phase.beginItem("open", path.toString());
                 try {
-                    input = Files.newInputStream(path);
-                }
-                catch (IOException e) {
-                    errorListener.onException(path, "The file cannot be opened", e);
-                    continue;
-                }
-
-                try {
-                    context.setAntlrStream(new ANTLRInputStream(input));
-                    fileContexts.add(context);
-                }
-                catch (IOException e) {
-                    errorListener.onException(path, "The file cannot be read", e);
-                    try {
-                        input.close();
-                    }
-                    catch (IOException e2) {
-                        errorListener.onException(path, "The failed stream cannot be closed", e2);
+                    final FileContext context = openFile(path);
+                    if (context != null) {
+                        fileContexts.add(context);
                     }
                 }
+                finally {
+                    endItem.run();
+                }
             }
+            phase.end(fileContexts.size());
 
-            return new SpeckyParsingContext(fileContexts);
+            return new SpeckyParsingContext(fileContexts, metrics);
         }
         else {
             throw new IllegalStateException("Context has already been parsed");
         }
     }
+
+    /**
+     * @return the context of the file or null if the file cannot be read
+     */
+    private FileContext openFile(Path path) {
+        final FileContext context = new FileContext();
+        context.setFile(path);
+
+        if (openLazily) {
+            try {
+                FileChannel.open(path, READ).close();
+            }
+            catch (IOException e) {
+                errorListener.onException(path, "The file cannot be opened", e);
+                return null;
+            }
+
+            context.setAntlrStream(new MappedFileInputStream(path));
+            return context;
+        }
+
+        final InputStream input;
+        try {
+            input = Files.newInputStream(path);
+        }
+        catch (IOException e) {
+            errorListener.onException(path, "The file cannot be opened", e);
+            return null;
+        }
+
+        try {
+            context.setAntlrStream(new ANTLRInputStream(input));
+            return context;
+        }
+        catch (IOException e) {
+            errorListener.onException(path, "The file cannot be read", e);
+            return null;
+        }
+        finally {
+            try {
+                input.close();
+            }
+            catch (IOException e) {
+                errorListener.onException(path, "The stream cannot be closed", e);
+            }
+        }
+    }
 }
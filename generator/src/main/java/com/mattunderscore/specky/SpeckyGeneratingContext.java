@@ -29,11 +29,22 @@ import static com.mattunderscore.specky.generator.object.method.ToStringGenerato
 import static com.mattunderscore.specky.generator.object.method.ToStringGenerator.SIMPLE_PROPERTY_FORMATTER;
 import static com.mattunderscore.specky.generator.object.method.ToStringGenerator.SQUARE_BRACKETS;
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
 import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static javax.lang.model.element.Modifier.PUBLIC;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.mattunderscore.specky.generator.AbstractTypeInitialiser;
@@ -76,6 +87,9 @@ import com.squareup.javapoet.JavaFile;
  */
 public final class SpeckyGeneratingContext {
     private final SpecDesc spec;
+    private final PipelineMetrics metrics;
+    private final DependencyGraph dependencyGraph;
+    private final Set<Path> resolvedFiles;
     private final AtomicBoolean consumed = new AtomicBoolean(false);
     private volatile TypeAppender<ImplementationDesc> toStringGenerator =
         new ToStringGenerator(
@@ -84,9 +98,71 @@ public final class SpeckyGeneratingContext {
             SIMPLE_PROPERTY_FORMATTER);
     private TypeAppenderForProperty<ImplementationDesc> accessorGenerator = new AccessorGenerator();
     private TypeAppenderForProperty<ImplementationDesc> mutatorGenerator = new MutatorGenerator();
+    private volatile int generateThreads = 1;
+    private volatile Map<String, JavaFile> previousJavaFiles = emptyMap();
 
     /*package*/ SpeckyGeneratingContext(SpecDesc spec) {
+        this(spec, PipelineMetrics.NONE);
+    }
+
+    /*package*/ SpeckyGeneratingContext(SpecDesc spec, PipelineMetrics metrics) {
+        this(spec, metrics, DependencyGraph.EMPTY, emptySet());
+    }
+
+    /*package*/ SpeckyGeneratingContext(
+            SpecDesc spec,
+            PipelineMetrics metrics,
+            DependencyGraph dependencyGraph,
+            Set<Path> resolvedFiles) {
+
         this.spec = spec;
+        this.metrics = metrics;
+        this.dependencyGraph = dependencyGraph;
+        this.resolvedFiles = resolvedFiles;
+    }
+
+    /**
+     * @return the dependencies of the sections and types of the specification
+     */
+    public DependencyGraph getDependencyGraph() {
+        return dependencyGraph;
+    }
+
+    /**
+     * @return the fully qualified names of the types affected by the specification files that were parsed instead of
+     * taken from the model cache
+     */
+    public Set<String> getAffectedTypes() {
+        return dependencyGraph.getAffectedTypes(resolvedFiles);
+    }
+
+    /**
+     * Reuse the Java files generated by an earlier build with the same configuration for the types not affected by
+     * the changed specification files.
+     * @param javaFiles the earlier Java files by the fully qualified names of their types
+     */
+    public SpeckyGeneratingContext previousGeneration(Map<String, JavaFile> javaFiles) {
+        previousJavaFiles = javaFiles;
+        return this;
+    }
+
+    /**
+     * Generate the types concurrently, using a thread for each available processor.
+     */
+    public SpeckyGeneratingContext generateConcurrently() {
+        return generateConcurrently(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Generate the types concurrently, using the given number of threads.
+     */
+    public SpeckyGeneratingContext generateConcurrently(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed to generate types");
+        }
+
+        generateThreads = threads;
+        return this;
     }
 
     /**
@@ -119,6 +195,7 @@ public final class SpeckyGeneratingContext {
      */
     public SpeckyWritingContext generate() {
         if (consumed.compareAndSet(false, true)) {
+            final PipelineMetrics.Phase phase = metrics.beginPhase("generate");
             final BuildMethodGenerator buildMethodGenerator = new BuildMethodGenerator();
             final TypeInitialiser<ImplementationDesc> builderInitialiser = new BuilderInitialiser();
             final MutableBuilderGenerator mutableBuilderGenerator = new MutableBuilderGenerator(
@@ -174,13 +251,62 @@ public final class SpeckyGeneratingContext {
                 new TypeGenerator<>(
                     new AbstractTypeInitialiser(),
                     singletonList(superTypeAppender),
-                    singletonList(new AbstractAccessorGenerator())));
+                    singletonList(new AbstractAccessorGenerator())),
+                typeDesc -> phase.beginItem("generate", typeDesc.getPackageName() + "." + typeDesc.getName()));
 
-            final List<JavaFile> javaFiles = generator.generate(spec);
-            return new SpeckyWritingContext(javaFiles);
+            // Only generate the types that are new or affected by the changed files
+            final Map<String, JavaFile> reusableJavaFiles = previousJavaFiles;
+            final Set<String> affectedTypes = reusableJavaFiles.isEmpty() ? emptySet() : getAffectedTypes();
+            final Set<String> reusedTypes = spec
+                .getTypes()
+                .stream()
+                .map(SpeckyGeneratingContext::typeName)
+                .filter(typeName -> !affectedTypes.contains(typeName) && reusableJavaFiles.containsKey(typeName))
+                .collect(toSet());
+            final List<TypeDesc> typesToGenerate = spec
+                .getTypes()
+                .stream()
+                .filter(typeDesc -> !reusedTypes.contains(typeName(typeDesc)))
+                .collect(toList());
+            final SpecDesc specToGenerate = reusedTypes.isEmpty() ?
+                spec :
+                SpecDesc
+                    .builder()
+                    .abstractTypes(spec.getAbstractTypes())
+                    .implementations(spec.getImplementations())
+                    .types(typesToGenerate)
+                    .build();
+
+            final List<JavaFile> generatedJavaFiles;
+            if (generateThreads > 1) {
+                final ExecutorService executor = Executors.newFixedThreadPool(generateThreads);
+                try {
+                    generatedJavaFiles = generator.generate(specToGenerate, executor);
+                }
+                finally {
+                    executor.shutdownNow();
+                }
+            }
+            else {
+                generatedJavaFiles = generator.generate(specToGenerate);
+            }
+
+            // Combine the generated and reused files in the order of the types
+            final List<JavaFile> javaFiles = new ArrayList<>(spec.getTypes().size());
+            final Iterator<JavaFile> generated = generatedJavaFiles.iterator();
+            for (final TypeDesc typeDesc : spec.getTypes()) {
+                final String typeName = typeName(typeDesc);
+                javaFiles.add(reusedTypes.contains(typeName) ? reusableJavaFiles.get(typeName) : generated.next());
+            }
+            phase.end(generatedJavaFiles.size());
+            return new SpeckyWritingContext(javaFiles, metrics);
         }
         else {
             throw new IllegalStateException("Context has already been generated");
         }
     }
+
+    private static String typeName(TypeDesc typeDesc) {
+        return typeDesc.getPackageName() + "." + typeDesc.getName();
+    }
 }
@@ -29,6 +29,7 @@ import com.mattunderscore.specky.error.listeners.CountingSemanticErrorListener;
 import com.mattunderscore.specky.model.SpecDesc;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -43,9 +44,54 @@ import static com.mattunderscore.specky.error.listeners.ReportingSyntaxErrorList
 public final class SpeckyParsingContext {
     private final AtomicBoolean consumed = new AtomicBoolean(false);
     private final List<FileContext> fileContexts;
+    private final PipelineMetrics metrics;
+    private volatile int parseThreads = 1;
+    private volatile FileModelCache fileModelCache = FileModelCache.NONE;
+    private volatile PredictionCounters predictionCounters = new PredictionCounters();
 
     /*package*/ SpeckyParsingContext(List<FileContext> fileContexts) {
+        this(fileContexts, PipelineMetrics.NONE);
+    }
+
+    /*package*/ SpeckyParsingContext(List<FileContext> fileContexts, PipelineMetrics metrics) {
         this.fileContexts = fileContexts;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Parse the files concurrently, using a thread for each available processor.
+     */
+    public SpeckyParsingContext parseConcurrently() {
+        return parseConcurrently(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Parse the files concurrently, using the given number of threads.
+     */
+    public SpeckyParsingContext parseConcurrently(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed to parse files");
+        }
+
+        parseThreads = threads;
+        return this;
+    }
+
+    /**
+     * Set the cache of file models. Files with a valid model in the cache are not parsed again.
+     */
+    public SpeckyParsingContext fileModelCache(FileModelCache cache) {
+        fileModelCache = cache;
+        return this;
+    }
+
+    /**
+     * Set the counters that record how often parsing with SLL prediction fails and the files are parsed again with LL
+     * prediction.
+     */
+    public SpeckyParsingContext predictionCounters(PredictionCounters counters) {
+        predictionCounters = counters;
+        return this;
     }
 
     /**
@@ -56,19 +102,43 @@ public final class SpeckyParsingContext {
         if (consumed.compareAndSet(false, true)) {
             final CountingSyntaxErrorListener syntaxErrorCounter = new CountingSyntaxErrorListener();
             final CountingSemanticErrorListener errorCounter = new CountingSemanticErrorListener();
+            final PipelineMetrics.Phase phase = metrics.beginPhase("parse");
             final ModelGenerator generator = new ModelGenerator(
                 composeListeners(errorCounter, reportTo(System.err)),
-                composeSyntaxListeners(syntaxErrorCounter, reportSyntaxErrorsTo(System.err)));
+                composeSyntaxListeners(syntaxErrorCounter, reportSyntaxErrorsTo(System.err)),
+                parseThreads,
+                fileModelCache,
+                predictionCounters,
+                (file, pass) -> phase.beginItem(pass, file.toString()));
 
             @SuppressWarnings("PMD.PrematureDeclaration")
-            final SpecDesc spec = generator.build(fileContexts);
+            final SpecDesc spec;
+            try {
+                spec = generator.build(fileContexts);
+            }
+            catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            finally {
+                // Files are released as they are resolved, release any left after an error
+                fileContexts
+                    .stream()
+                    .map(FileContext::getAntlrStream)
+                    .filter(stream -> stream instanceof FileContentStream)
+                    .forEach(stream -> ((FileContentStream) stream).releaseCharacters());
+                phase.end(fileContexts.size());
+            }
 
             final int errorCount = syntaxErrorCounter.getErrorCount() + errorCounter.getErrorCount();
             if (errorCount > 0) {
                 throw new ParsingError(errorCount);
             }
 
-            return new SpeckyGeneratingContext(spec);
+            return new SpeckyGeneratingContext(
+                spec,
+                metrics,
+                generator.getDependencyGraph(),
+                generator.getResolvedFiles());
         }
         else {
             throw new IllegalStateException("Context has already been parsed");
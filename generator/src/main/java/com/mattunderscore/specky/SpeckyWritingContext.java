@@ -25,24 +25,39 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
 
 package com.mattunderscore.specky;
 
-import com.google.googlejavaformat.java.Formatter;
 import com.google.googlejavaformat.java.FormatterException;
-import com.google.googlejavaformat.java.JavaFormatterOptions;
-import com.google.googlejavaformat.java.JavaFormatterOptions.JavadocFormatter;
-import com.google.googlejavaformat.java.JavaFormatterOptions.SortImports;
-import com.google.googlejavaformat.java.JavaFormatterOptions.Style;
 import com.squareup.javapoet.JavaFile;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
 
 import static java.nio.file.StandardOpenOption.CREATE;
 import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
 import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Comparator.reverseOrder;
+import static java.util.stream.Collectors.toList;
 
 /**
  * Writes generated Java code to file system.
@@ -50,14 +65,41 @@ import static java.nio.file.StandardOpenOption.WRITE;
  * @author Matt Champion on 02/07/2016
  */
 public final class SpeckyWritingContext {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
     private final AtomicBoolean consumed = new AtomicBoolean(false);
     private final List<JavaFile> javaFiles;
-    private final Formatter codeFormatter;
+    private final PipelineMetrics metrics;
     private volatile Path targetPath;
+    private final AtomicInteger writtenFiles = new AtomicInteger(0);
+    private final AtomicInteger unchangedFiles = new AtomicInteger(0);
+    private volatile int writeThreads = 1;
+    private volatile boolean skipUnchanged;
+    private volatile boolean deleteStale;
+    private volatile Set<Path> previousFiles;
+    private volatile SourceFormatter sourceFormatter;
+    private volatile FormattedSourceCache formattedSourceCache = FormattedSourceCache.NONE;
 
     /*package*/ SpeckyWritingContext(List<JavaFile> javaFiles) {
+        this(javaFiles, PipelineMetrics.NONE);
+    }
+
+    /*package*/ SpeckyWritingContext(List<JavaFile> javaFiles, PipelineMetrics metrics) {
         this.javaFiles = javaFiles;
-        codeFormatter = new Formatter(new JavaFormatterOptions(JavadocFormatter.NONE, Style.AOSP, SortImports.ALSO));
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return the generated files to write
+     */
+    /*package*/ List<JavaFile> getJavaFiles() {
+        return javaFiles;
+    }
+
+    /**
+     * @return a context to compile the generated files in memory instead of writing them
+     */
+    public SpeckyCompilingContext toCompilingContext() {
+        return new SpeckyCompilingContext(javaFiles, metrics);
     }
 
     /**
@@ -69,31 +111,370 @@ public final class SpeckyWritingContext {
     }
 
     /**
-     * Write files.
+     * Set the formatter applied to the generated files. If not set the files are formatted with
+     * {@link GoogleSourceFormatter}.
+     */
+    public SpeckyWritingContext formatter(SourceFormatter formatter) {
+        sourceFormatter = formatter;
+        return this;
+    }
+
+    /**
+     * Set the cache of formatted source code. Files found in the cache are not formatted again.
+     */
+    public SpeckyWritingContext formattedSourceCache(FormattedSourceCache cache) {
+        formattedSourceCache = cache;
+        return this;
+    }
+
+    /**
+     * Format and write the files concurrently, using a thread for each available processor.
+     */
+    public SpeckyWritingContext writeConcurrently() {
+        return writeConcurrently(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Format and write the files concurrently, using the given number of threads.
+     */
+    public SpeckyWritingContext writeConcurrently(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed to write files");
+        }
+
+        writeThreads = threads;
+        return this;
+    }
+
+    /**
+     * Leave files that already have the generated content untouched, so their modification time is unchanged and
+     * they are not recompiled.
+     */
+    public SpeckyWritingContext skipUnchangedFiles() {
+        skipUnchanged = true;
+        return this;
+    }
+
+    /**
+     * Delete Java files in the target path that were not generated by this context. The target path should only
+     * contain generated code.
+     */
+    public SpeckyWritingContext deleteStaleFiles() {
+        deleteStale = true;
+        previousFiles = null;
+        return this;
+    }
+
+    /**
+     * Delete the files written by an earlier generation that were not generated by this context. Other files in the
+     * target path are left untouched.
+     */
+    public SpeckyWritingContext deleteStaleFiles(Collection<Path> previousFiles) {
+        deleteStale = true;
+        this.previousFiles = new HashSet<>(previousFiles);
+        return this;
+    }
+
+    /**
+     * Write files. Every file is attempted, files that cannot be formatted are reported together once the others
+     * have been written.
+     * @return the number of files written, unchanged and deleted
      * @throws IllegalStateException if has been called before
+     * @throws FormatterException if any of the files could not be formatted, the failure for each file is suppressed
      */
-    public void write() throws IOException, FormatterException {
+    public WriteSummary write() throws IOException, FormatterException {
         if (consumed.compareAndSet(false, true)) {
-            for (final JavaFile file : javaFiles) {
-                final String code = file.toString();
+            final PipelineMetrics.Phase phase = metrics.beginPhase("write");
+            final Map<String, Path> packageDirectories = createPackageDirectories();
+            final SourceFormatter formatter = sourceFormatter == null ? new GoogleSourceFormatter() : sourceFormatter;
+
+            final List<Exception> formatterFailures;
+            if (writeThreads > 1 && javaFiles.size() > 1) {
+                final ExecutorService executor = Executors.newFixedThreadPool(writeThreads);
                 try {
-                    final String formattedSource = codeFormatter.formatSource(code);
-                    Path outputPath = targetPath;
-                    final String[] packageNameParts = file.packageName.split("\\.");
-                    for (final String packageNamePart : packageNameParts) {
-                        outputPath = outputPath.resolve(packageNamePart);
+                    formatterFailures = writeFiles(packageDirectories, formatter, executor, phase);
+                }
+                finally {
+                    executor.shutdownNow();
+                }
+            }
+            else {
+                formatterFailures = writeFiles(packageDirectories, formatter, phase);
+            }
+
+            final List<Path> outputPaths = new ArrayList<>(javaFiles.size());
+            for (final JavaFile file : javaFiles) {
+                outputPaths.add(packageDirectories.get(file.packageName).resolve(file.typeSpec.name + ".java"));
+            }
+            final int deletedFiles;
+            if (!deleteStale) {
+                deletedFiles = 0;
+            }
+            else if (previousFiles == null) {
+                deletedFiles = deleteStaleFiles(new HashSet<>(outputPaths));
+            }
+            else {
+                deletedFiles = deletePreviousFiles(new HashSet<>(outputPaths));
+            }
+            phase.end(javaFiles.size());
+
+            if (!formatterFailures.isEmpty()) {
+                final FormatterException exception =
+                    new FormatterException("Failed to format " + formatterFailures.size() + " generated files");
+                formatterFailures.forEach(exception::addSuppressed);
+                throw exception;
+            }
+
+            return new WriteSummary(writtenFiles.get(), unchangedFiles.get(), deletedFiles, outputPaths);
+        }
+        else {
+            throw new IllegalStateException("Context has already been generated");
+        }
+    }
+
+    /**
+     * Write the files through the {@link Filer} of an annotation processor. The files are only formatted if a
+     * formatter has been set, the compiler does not need them to be.
+     * @return the number of files written
+     * @throws IllegalStateException if has been called before
+     * @throws FormatterException if a file could not be formatted
+     */
+    public int writeTo(Filer filer, Element... originatingElements) throws IOException, FormatterException {
+        if (consumed.compareAndSet(false, true)) {
+            final PipelineMetrics.Phase phase = metrics.beginPhase("write");
+            for (final JavaFile file : javaFiles) {
+                final String typeName = file.packageName + "." + file.typeSpec.name;
+                final Runnable endWrite = phase.beginItem("write", typeName);
+                try (Writer writer = filer.createSourceFile(typeName, originatingElements).openWriter()) {
+                    if (sourceFormatter == null) {
+                        file.writeTo(writer);
+                    }
+                    else {
+                        writer.write(format(file, sourceFormatter));
                     }
-                    Files.createDirectories(outputPath);
-                    outputPath = outputPath.resolve(file.typeSpec.name + ".java");
-                    Files.write(outputPath, formattedSource.getBytes(Charset.forName("UTF-8")), CREATE, WRITE, TRUNCATE_EXISTING);
                 }
-                catch (FormatterException e) {
-                    throw new IllegalStateException("Failed to write\n" + code, e);
+                finally {
+                    endWrite.run();
                 }
             }
+            phase.end(javaFiles.size());
+
+            return javaFiles.size();
         }
         else {
             throw new IllegalStateException("Context has already been generated");
         }
     }
+
+    private Map<String, Path> createPackageDirectories() throws IOException {
+        final Map<String, Path> packageDirectories = new HashMap<>();
+        for (final JavaFile file : javaFiles) {
+            if (!packageDirectories.containsKey(file.packageName)) {
+                Path outputPath = targetPath;
+                final String[] packageNameParts = file.packageName.split("\\.");
+                for (final String packageNamePart : packageNameParts) {
+                    outputPath = outputPath.resolve(packageNamePart);
+                }
+                Files.createDirectories(outputPath);
+                packageDirectories.put(file.packageName, outputPath);
+            }
+        }
+        return packageDirectories;
+    }
+
+    private List<Exception> writeFiles(
+            Map<String, Path> packageDirectories,
+            SourceFormatter formatter,
+            PipelineMetrics.Phase phase) throws IOException {
+
+        final List<Exception> formatterFailures = new ArrayList<>();
+        for (final JavaFile file : javaFiles) {
+            try {
+                writeFile(file, packageDirectories.get(file.packageName), formatter, phase);
+            }
+            catch (FormatterException e) {
+                formatterFailures.add(formatterFailure(file, e));
+            }
+        }
+        return formatterFailures;
+    }
+
+    private List<Exception> writeFiles(
+            Map<String, Path> packageDirectories,
+            SourceFormatter formatter,
+            ExecutorService executor,
+            PipelineMetrics.Phase phase) throws IOException {
+
+        final List<Future<Void>> futures = javaFiles
+            .stream()
+            .map(file -> executor.submit(() -> {
+                writeFile(file, packageDirectories.get(file.packageName), formatter, phase);
+                return (Void) null;
+            }))
+            .collect(toList());
+
+        final List<Exception> formatterFailures = new ArrayList<>();
+        IOException ioException = null;
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                }
+                catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof FormatterException) {
+                        formatterFailures.add(formatterFailure(javaFiles.get(i), (FormatterException) cause));
+                    }
+                    else if (cause instanceof IOException) {
+                        if (ioException == null) {
+                            ioException = (IOException) cause;
+                        }
+                        else {
+                            ioException.addSuppressed(cause);
+                        }
+                    }
+                    else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    else {
+                        throw new IllegalStateException("Failed to write file", cause);
+                    }
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing files", e);
+        }
+
+        if (ioException != null) {
+            throw ioException;
+        }
+
+        return formatterFailures;
+    }
+
+    private void writeFile(
+            JavaFile file,
+            Path packageDirectory,
+            SourceFormatter formatter,
+            PipelineMetrics.Phase phase) throws IOException, FormatterException {
+
+        final String typeName = file.packageName + "." + file.typeSpec.name;
+        final Path outputPath = packageDirectory.resolve(file.typeSpec.name + ".java");
+        final Runnable endFormat = phase.beginItem("format", typeName);
+        final byte[] formattedSource;
+        try {
+            formattedSource = format(file, formatter).getBytes(UTF_8);
+        }
+        finally {
+            endFormat.run();
+        }
+
+        final Runnable endWrite = phase.beginItem("write", typeName);
+        try {
+            if (skipUnchanged && isUnchanged(outputPath, formattedSource)) {
+                unchangedFiles.incrementAndGet();
+            }
+            else {
+                Files.write(outputPath, formattedSource, CREATE, WRITE, TRUNCATE_EXISTING);
+                writtenFiles.incrementAndGet();
+            }
+        }
+        finally {
+            endWrite.run();
+        }
+    }
+
+    private String format(JavaFile file, SourceFormatter formatter) throws FormatterException {
+        final String source = file.toString();
+        final String formatterName = formatter.getClass().getName() + " " + formatter.getVersion();
+        final Optional<String> cachedSource = formattedSourceCache.get(formatterName, source);
+        if (cachedSource.isPresent()) {
+            return cachedSource.get();
+        }
+
+        final String formattedSource = formatter.format(source);
+        formattedSourceCache.put(formatterName, source, formattedSource);
+        return formattedSource;
+    }
+
+    private static boolean isUnchanged(Path outputPath, byte[] formattedSource) throws IOException {
+        return Files.isRegularFile(outputPath) &&
+            Files.size(outputPath) == formattedSource.length &&
+            Arrays.equals(Files.readAllBytes(outputPath), formattedSource);
+    }
+
+    private int deleteStaleFiles(Set<Path> outputPaths) throws IOException {
+        if (!Files.isDirectory(targetPath)) {
+            // Nothing has been written to the target path
+            return 0;
+        }
+
+        final List<Path> staleFiles;
+        try (Stream<Path> paths = Files.walk(targetPath)) {
+            staleFiles = paths
+                .filter(path -> path.toString().endsWith(".java"))
+                .filter(Files::isRegularFile)
+                .filter(path -> !outputPaths.contains(path))
+                .collect(toList());
+        }
+
+        for (final Path staleFile : staleFiles) {
+            Files.delete(staleFile);
+        }
+
+        deleteEmptyDirectories();
+
+        return staleFiles.size();
+    }
+
+    private int deletePreviousFiles(Set<Path> outputPaths) throws IOException {
+        int deletedFiles = 0;
+        for (final Path previousFile : previousFiles) {
+            if (!outputPaths.contains(previousFile) && Files.deleteIfExists(previousFile)) {
+                deletedFiles += 1;
+                deleteEmptyDirectories(previousFile.getParent());
+            }
+        }
+        return deletedFiles;
+    }
+
+    private void deleteEmptyDirectories(Path directory) throws IOException {
+        for (Path path = directory; path.startsWith(targetPath) && !path.equals(targetPath); path = path.getParent()) {
+            try (Stream<Path> children = Files.list(path)) {
+                if (children.findAny().isPresent()) {
+                    return;
+                }
+            }
+            Files.delete(path);
+        }
+    }
+
+    private void deleteEmptyDirectories() throws IOException {
+        final List<Path> directories;
+        try (Stream<Path> paths = Files.walk(targetPath)) {
+            directories = paths
+                .filter(Files::isDirectory)
+                .filter(path -> !path.equals(targetPath))
+                .sorted(reverseOrder())
+                .collect(toList());
+        }
+
+        for (final Path directory : directories) {
+            try (Stream<Path> children = Files.list(directory)) {
+                if (!children.findAny().isPresent()) {
+                    Files.delete(directory);
+                }
+            }
+        }
+    }
+
+    private static Exception formatterFailure(JavaFile file, FormatterException e) {
+        return new IllegalStateException("Failed to write\n" + file.toString(), e);
+    }
 }
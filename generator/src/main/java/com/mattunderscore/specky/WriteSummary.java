@@ -0,0 +1,85 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static java.util.Collections.unmodifiableList;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Summary of the files written by a {@link SpeckyWritingContext}.
+ *
+ * @author Matt Champion on 15/10/2017
+ */
+public final class WriteSummary {
+    private final int written;
+    private final int unchanged;
+    private final int deleted;
+    private final List<Path> files;
+
+    /**
+     * Constructor.
+     */
+    /*package*/ WriteSummary(int written, int unchanged, int deleted, List<Path> files) {
+        this.written = written;
+        this.unchanged = unchanged;
+        this.deleted = deleted;
+        this.files = unmodifiableList(files);
+    }
+
+    /**
+     * @return the number of files written
+     */
+    public int getWritten() {
+        return written;
+    }
+
+    /**
+     * @return the number of files left untouched because the content was unchanged
+     */
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    /**
+     * @return the number of stale files deleted
+     */
+    public int getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * @return the paths of the generated files, whether they were written or unchanged
+     */
+    public List<Path> getFiles() {
+        return files;
+    }
+
+    @Override
+    public String toString() {
+        return written + " written, " + unchanged + " unchanged, " + deleted + " deleted";
+    }
+}
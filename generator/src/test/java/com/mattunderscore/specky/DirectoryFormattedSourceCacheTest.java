@@ -0,0 +1,118 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link DirectoryFormattedSourceCache}.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+public final class DirectoryFormattedSourceCacheTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void miss() {
+        final DirectoryFormattedSourceCache cache = new DirectoryFormattedSourceCache(directory(), "1.0", 1024L);
+
+        assertFalse(cache.get("formatter", "source").isPresent());
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void hit() {
+        final DirectoryFormattedSourceCache cache = new DirectoryFormattedSourceCache(directory(), "1.0", 1024L);
+        cache.put("formatter", "source", "formatted");
+
+        assertEquals(Optional.of("formatted"), cache.get("formatter", "source"));
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    public void persisted() {
+        new DirectoryFormattedSourceCache(directory(), "1.0", 1024L).put("formatter", "source", "formatted");
+
+        final DirectoryFormattedSourceCache cache = new DirectoryFormattedSourceCache(directory(), "1.0", 1024L);
+        assertEquals(Optional.of("formatted"), cache.get("formatter", "source"));
+    }
+
+    @Test
+    public void keyedByFormatterAndSalt() {
+        new DirectoryFormattedSourceCache(directory(), "1.0", 1024L).put("formatter", "source", "formatted");
+
+        assertFalse(new DirectoryFormattedSourceCache(directory(), "1.0", 1024L).get("other", "source").isPresent());
+        assertFalse(new DirectoryFormattedSourceCache(directory(), "2.0", 1024L).get("formatter", "source").isPresent());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        final DirectoryFormattedSourceCache cache = new DirectoryFormattedSourceCache(directory(), "1.0", 25L);
+        cache.put("formatter", "a", "formatted a");
+        cache.put("formatter", "b", "formatted b");
+        cache.get("formatter", "a");
+        cache.put("formatter", "c", "formatted c");
+
+        assertEquals(1, cache.getEvictions());
+        assertTrue(cache.get("formatter", "a").isPresent());
+        assertFalse(cache.get("formatter", "b").isPresent());
+        assertTrue(cache.get("formatter", "c").isPresent());
+    }
+
+    @Test
+    public void evictWhenReopened() throws IOException {
+        final DirectoryFormattedSourceCache cache = new DirectoryFormattedSourceCache(directory(), "1.0", 1024L);
+        cache.put("formatter", "a", "formatted a");
+        cache.put("formatter", "b", "formatted b");
+
+        final DirectoryFormattedSourceCache smallerCache =
+            new DirectoryFormattedSourceCache(directory(), "1.0", 11L);
+        smallerCache.get("formatter", "a");
+
+        assertEquals(1, smallerCache.getEvictions());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeSize() {
+        new DirectoryFormattedSourceCache(directory(), "1.0", -1L);
+    }
+
+    private Path directory() {
+        return folder.getRoot().toPath().resolve("cache");
+    }
+}
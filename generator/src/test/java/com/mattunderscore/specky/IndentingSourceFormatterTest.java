@@ -0,0 +1,64 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link IndentingSourceFormatter}.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+public final class IndentingSourceFormatterTest {
+    private final IndentingSourceFormatter formatter = new IndentingSourceFormatter();
+
+    @Test
+    public void indent() {
+        assertEquals(
+            "class A {\n    void a() {\n        b(1,\n                2);\n    }\n}\n",
+            formatter.format("class A {\n  void a() {\n    b(1,\n        2);\n  }\n}\n"));
+    }
+
+    @Test
+    public void javadoc() {
+        assertEquals(
+            "class A {\n    /**\n     * Doc.\n     */\n    int a;\n}\n",
+            formatter.format("class A {\n  /**\n   * Doc.\n   */\n  int a;\n}\n"));
+    }
+
+    @Test
+    public void trailingWhitespace() {
+        assertEquals("class A {\n}\n", formatter.format("class A {  \n}\t\n"));
+    }
+
+    @Test
+    public void blankLines() {
+        assertEquals(
+            "package a;\n\nimport b.B;\n\nclass A {\n}\n",
+            formatter.format("\npackage a;\n\n\nimport b.B;\n  \n\nclass A {\n}\n\n"));
+    }
+}
@@ -0,0 +1,135 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.antlr.v4.runtime.misc.Interval;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link MappedFileInputStream}.
+ *
+ * @author Matt Champion on 16/10/2017
+ */
+public final class MappedFileInputStreamTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void read() throws IOException {
+        final Path file = folder.newFile("test.spec").toPath();
+        Files.write(file, "value Test ©".getBytes(StandardCharsets.UTF_8));
+
+        final MappedFileInputStream stream = new MappedFileInputStream(file);
+
+        assertEquals(12, stream.size());
+        assertEquals('v', stream.LA(1));
+        stream.consume();
+        assertEquals('a', stream.LA(1));
+        assertEquals("value Test ©", stream.getText(Interval.of(0, 11)));
+        assertEquals(file.toString(), stream.getSourceName());
+    }
+
+    @Test
+    public void readAfterRelease() throws IOException {
+        final Path file = folder.newFile("test.spec").toPath();
+        Files.write(file, "value Test".getBytes(StandardCharsets.UTF_8));
+
+        final MappedFileInputStream stream = new MappedFileInputStream(file);
+        assertEquals("value Test", stream.toString());
+
+        stream.releaseCharacters();
+
+        assertEquals(10, stream.size());
+        assertEquals("value Test", stream.toString());
+    }
+
+    @Test
+    public void contentDigest() throws IOException, NoSuchAlgorithmException {
+        final Path file = folder.newFile("test.spec").toPath();
+        final byte[] bytes = "value Test ©".getBytes(StandardCharsets.UTF_8);
+        Files.write(file, bytes);
+
+        final MappedFileInputStream stream = new MappedFileInputStream(file);
+
+        assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(bytes), stream.getContentDigest());
+    }
+
+    @Test
+    public void contentDigestOfDecodedBytes() throws IOException, NoSuchAlgorithmException {
+        final Path file = folder.newFile("test.spec").toPath();
+        Files.write(file, "value Test".getBytes(StandardCharsets.UTF_8));
+        final MappedFileInputStream stream = new MappedFileInputStream(file);
+        stream.getContentDigest();
+
+        final byte[] bytes = "value Changed".getBytes(StandardCharsets.UTF_8);
+        Files.write(file, bytes);
+
+        assertEquals("value Changed", stream.toString());
+        assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(bytes), stream.getContentDigest());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void changedAfterDecoding() throws IOException {
+        final Path file = folder.newFile("test.spec").toPath();
+        Files.write(file, "value Test".getBytes(StandardCharsets.UTF_8));
+        final MappedFileInputStream stream = new MappedFileInputStream(file);
+        stream.size();
+        stream.releaseCharacters();
+
+        Files.write(file, "value Changed".getBytes(StandardCharsets.UTF_8));
+
+        stream.size();
+    }
+
+    @Test
+    public void emptyFile() throws IOException {
+        final Path file = folder.newFile("test.spec").toPath();
+
+        final MappedFileInputStream stream = new MappedFileInputStream(file);
+
+        assertEquals(0, stream.size());
+        assertEquals("", stream.toString());
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void missingFile() {
+        final MappedFileInputStream stream = new MappedFileInputStream(folder.getRoot().toPath().resolve("missing"));
+
+        stream.size();
+    }
+}
@@ -0,0 +1,75 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Optional;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link MemoryFormattedSourceCache}.
+ *
+ * @author Matt Champion 18/10/2017
+ */
+public final class MemoryFormattedSourceCacheTest {
+    @Test
+    public void miss() {
+        final MemoryFormattedSourceCache cache = new MemoryFormattedSourceCache();
+
+        assertFalse(cache.get("formatter", "source").isPresent());
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void hit() {
+        final MemoryFormattedSourceCache cache = new MemoryFormattedSourceCache();
+        cache.put("formatter", "source", "formatted");
+
+        assertEquals(Optional.of("formatted"), cache.get("formatter", "source"));
+        assertFalse(cache.get("other", "source").isPresent());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void retainUsedEntries() {
+        final MemoryFormattedSourceCache cache = new MemoryFormattedSourceCache();
+        cache.put("formatter", "a", "formatted a");
+        cache.put("formatter", "b", "formatted b");
+        cache.retainUsedEntries();
+
+        cache.get("formatter", "a");
+        cache.retainUsedEntries();
+
+        assertEquals(1, cache.size());
+        assertTrue(cache.get("formatter", "a").isPresent());
+        assertFalse(cache.get("formatter", "b").isPresent());
+    }
+}
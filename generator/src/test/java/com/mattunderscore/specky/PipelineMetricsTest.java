@@ -0,0 +1,127 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link PipelineMetrics}.
+ *
+ * @author Matt Champion on 16/10/2017
+ */
+public final class PipelineMetricsTest {
+    @Test
+    public void phases() {
+        final PipelineMetrics metrics = new PipelineMetrics();
+
+        metrics.beginPhase("parse").end(2);
+        metrics.beginPhase("generate").end(3);
+
+        final List<PhaseMetrics> phases = metrics.getPhases();
+        assertEquals(2, phases.size());
+        assertEquals("parse", phases.get(0).getName());
+        assertEquals(2, phases.get(0).getItems());
+        assertEquals("generate", phases.get(1).getName());
+        assertEquals(3, phases.get(1).getItems());
+        assertTrue(phases.get(0).getWallNanos() >= 0L);
+    }
+
+    @Test
+    public void items() throws InterruptedException {
+        final PipelineMetrics metrics = new PipelineMetrics();
+        final PipelineMetrics.Phase phase = metrics.beginPhase("write");
+
+        phase.beginItem("format", "com.example.Fast").run();
+        final Runnable endSlow = phase.beginItem("format", "com.example.Slow");
+        Thread.sleep(5L);
+        endSlow.run();
+        phase.beginItem("write", "com.example.Slow").run();
+        phase.end(2);
+
+        final List<ItemMetrics> slowest = metrics.getSlowestItems(1);
+        assertEquals(1, slowest.size());
+        assertEquals("format", slowest.get(0).getStep());
+        assertEquals("com.example.Slow", slowest.get(0).getItem());
+
+        final List<ItemMetrics> steps = metrics.getStepTotals();
+        assertEquals(2, steps.size());
+        assertEquals("format", steps.get(0).getStep());
+        assertEquals("2 items", steps.get(0).getItem());
+        assertEquals("write", steps.get(1).getStep());
+    }
+
+    @Test
+    public void otherThreadAllocation() throws InterruptedException {
+        final PipelineMetrics metrics = new PipelineMetrics();
+        final PipelineMetrics.Phase phase = metrics.beginPhase("generate");
+
+        final Thread thread = new Thread(() -> {
+            final Runnable end = phase.beginItem("generate", "com.example.Type");
+            final byte[][] allocated = new byte[16][];
+            for (int i = 0; i < allocated.length; i++) {
+                allocated[i] = new byte[1024];
+            }
+            end.run();
+        });
+        thread.start();
+        thread.join();
+        phase.end(1);
+
+        final long itemBytes = metrics.getSlowestItems(1).get(0).getAllocatedBytes();
+        assertTrue(metrics.getPhases().get(0).getAllocatedBytes() >= itemBytes);
+    }
+
+    @Test
+    public void none() {
+        final PipelineMetrics.Phase phase = PipelineMetrics.NONE.beginPhase("parse");
+        phase.beginItem("parse", "a.spec").run();
+        phase.end(1);
+
+        assertTrue(PipelineMetrics.NONE.getPhases().isEmpty());
+        assertTrue(PipelineMetrics.NONE.getSlowestItems(10).isEmpty());
+    }
+
+    @Test
+    public void report() {
+        final PipelineMetrics metrics = new PipelineMetrics();
+        final PipelineMetrics.Phase phase = metrics.beginPhase("parse");
+        phase.beginItem("parse", "a.spec").run();
+        phase.end(1);
+
+        final String[] lines = metrics.report(5).split("\n");
+
+        assertEquals(6, lines.length);
+        assertEquals("Phases:", lines[0]);
+        assertTrue(lines[1].startsWith("  parse: "));
+        assertEquals("Steps:", lines[2]);
+        assertEquals("Slowest:", lines[4]);
+        assertTrue(lines[5].startsWith("  parse a.spec: "));
+    }
+}
@@ -0,0 +1,145 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.lang.model.element.Modifier;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeSpec;
+
+/**
+ * Unit tests for {@link SpeckyCompilingContext}.
+ *
+ * @author Matt Champion on 16/10/2017
+ */
+public final class SpeckyCompilingContextTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void compile() throws Exception {
+        final ClassLoader classLoader = new SpeckyWritingContext(singletonList(greeter()))
+            .toCompilingContext()
+            .compile();
+
+        final Class<?> type = classLoader.loadClass("com.example.Greeter");
+        assertNotSame(getClass().getClassLoader(), type.getClassLoader());
+        assertEquals("hello", type.getMethod("greet").invoke(type.newInstance()));
+    }
+
+    @Test
+    public void compileSpec() throws Exception {
+        final Path spec = folder.newFile("point.spec").toPath();
+        Files.write(
+            spec,
+            ("package com.example\n\n" +
+                "value Point\n" +
+                "    properties\n" +
+                "        int x\n" +
+                "        int y\n").getBytes(UTF_8));
+        final SpeckyFileStreamingContext streamingContext = new SpeckyFileStreamingContext();
+        streamingContext.addFileToParse(spec);
+
+        final ClassLoader classLoader = streamingContext
+            .open()
+            .parse()
+            .generate()
+            .toCompilingContext()
+            .compile();
+
+        final Class<?> type = classLoader.loadClass("com.example.Point");
+        final Method getX = type.getMethod("getX");
+        assertEquals(int.class, getX.getReturnType());
+        assertFalse(folder.getRoot().toPath().resolve("com").toFile().exists());
+    }
+
+    @Test
+    public void compilationError() throws Exception {
+        final JavaFile badFile = JavaFile
+            .builder(
+                "com.example",
+                TypeSpec
+                    .classBuilder("Bad")
+                    .addMethod(MethodSpec
+                        .methodBuilder("method")
+                        .returns(String.class)
+                        .addStatement("return 5")
+                        .build())
+                    .build())
+            .build();
+
+        try {
+            new SpeckyWritingContext(singletonList(badFile))
+                .toCompilingContext()
+                .compile();
+            fail("Expected compilation to fail");
+        }
+        catch (CompilationError e) {
+            assertEquals(1, e.getDiagnostics().size());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void compileTwice() throws Exception {
+        final SpeckyCompilingContext context = new SpeckyWritingContext(singletonList(greeter()))
+            .toCompilingContext();
+
+        context.compile();
+        context.compile();
+    }
+
+    private static JavaFile greeter() {
+        return JavaFile
+            .builder(
+                "com.example",
+                TypeSpec
+                    .classBuilder("Greeter")
+                    .addModifiers(Modifier.PUBLIC)
+                    .addMethod(MethodSpec
+                        .methodBuilder("greet")
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(String.class)
+                        .addStatement("return $S", "hello")
+                        .build())
+                    .build())
+            .build();
+    }
+}
@@ -0,0 +1,231 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link SpeckyDaemon}.
+ *
+ * @author Matt Champion on 16/10/2017
+ */
+public final class SpeckyDaemonTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private Path specDirectory;
+    private Path target;
+
+    @Before
+    public void setUp() throws IOException {
+        specDirectory = folder.newFolder("spec").toPath();
+        target = folder.newFolder("target").toPath();
+    }
+
+    @Test
+    public void generate() throws Exception {
+        writeSpec("a.spec", "A");
+        writeSpec("b.spec", "B");
+
+        try (SpeckyDaemon daemon = new SpeckyDaemon(singletonList(specDirectory), target)) {
+            final WriteSummary summary = daemon.generate();
+
+            assertEquals(2, summary.getWritten());
+            assertTrue(Files.exists(target.resolve("com/example/A.java")));
+            assertTrue(Files.exists(target.resolve("com/example/B.java")));
+        }
+    }
+
+    @Test
+    public void generateAgain() throws Exception {
+        writeSpec("a.spec", "A");
+        writeSpec("b.spec", "B");
+
+        try (SpeckyDaemon daemon = new SpeckyDaemon(singletonList(specDirectory), target)) {
+            daemon.generate();
+
+            final WriteSummary unchangedSummary = daemon.generate();
+            assertEquals(0, unchangedSummary.getWritten());
+            assertEquals(2, unchangedSummary.getUnchanged());
+
+            writeSpec("b.spec", "C");
+            final WriteSummary changedSummary = daemon.generate();
+            assertEquals(1, changedSummary.getWritten());
+            assertEquals(1, changedSummary.getUnchanged());
+            assertEquals(1, changedSummary.getDeleted());
+            assertFalse(Files.exists(target.resolve("com/example/B.java")));
+        }
+    }
+
+    @Test
+    public void generateKeepsOtherFiles() throws Exception {
+        writeSpec("a.spec", "A");
+        final Path otherFile = target.resolve("com/example/Other.java");
+        Files.createDirectories(otherFile.getParent());
+        Files.write(otherFile, "class Other {}".getBytes(UTF_8));
+
+        try (SpeckyDaemon daemon = new SpeckyDaemon(singletonList(specDirectory), target)) {
+            daemon.generate();
+            writeSpec("a.spec", "B");
+            final WriteSummary summary = daemon.generate();
+
+            assertEquals(1, summary.getDeleted());
+            assertFalse(Files.exists(target.resolve("com/example/A.java")));
+            assertTrue(Files.exists(otherFile));
+        }
+    }
+
+    @Test
+    public void generateRestoresModifiedFiles() throws Exception {
+        writeSpec("a.spec", "A");
+        writeSpec("b.spec", "B");
+
+        try (SpeckyDaemon daemon = new SpeckyDaemon(singletonList(specDirectory), target)) {
+            daemon.generate();
+            final Path outputPath = target.resolve("com/example/A.java");
+            final byte[] source = Files.readAllBytes(outputPath);
+            Files.write(outputPath, "modified".getBytes(UTF_8));
+
+            // A is reused from the earlier build but its file no longer has the generated content
+            writeSpec("b.spec", "C");
+            final WriteSummary summary = daemon.generate();
+            assertEquals(2, summary.getWritten());
+            assertArrayEquals(source, Files.readAllBytes(outputPath));
+        }
+    }
+
+    @Test
+    public void generateAfterPropertyTypeChanges() throws Exception {
+        final String holderSpec = "package com.example\n\nvalue Holder\n    properties\n        Inner inner\n";
+        Files.write(specDirectory.resolve("holder.spec"), holderSpec.getBytes(UTF_8));
+        final String innerSpec = "package com.example\n\nvalue Inner\n    properties\n        int a\n";
+        Files.write(specDirectory.resolve("inner.spec"), innerSpec.getBytes(UTF_8));
+
+        try (SpeckyDaemon daemon = new SpeckyDaemon(singletonList(specDirectory), target)) {
+            daemon.generate();
+            final Path outputPath = target.resolve("com/example/Holder.java");
+            assertTrue(new String(Files.readAllBytes(outputPath), UTF_8).contains("this.inner.appendTo(builder)"));
+
+            // Holder is unchanged but an interface does not have an appendTo method
+            Files.write(specDirectory.resolve("inner.spec"), innerSpec.replace("value", "type").getBytes(UTF_8));
+            daemon.generate();
+            final String source = new String(Files.readAllBytes(outputPath), UTF_8);
+            assertFalse(source, source.contains("appendTo(builder)"));
+            assertTrue(source, source.contains(".append(this.inner)"));
+        }
+    }
+
+    @Test
+    public void watch() throws Exception {
+        writeSpec("a.spec", "A");
+        final BlockingQueue<String> outcomes = new LinkedBlockingQueue<>();
+
+        try (SpeckyDaemon daemon = new SpeckyDaemon(singletonList(specDirectory), target)) {
+            daemon.generate();
+            daemon.watch(outcomes::add);
+
+            writeSpec("b.spec", "B");
+
+            final String outcome = outcomes.poll(30, SECONDS);
+            assertTrue(outcome, outcome.startsWith("ok "));
+            assertTrue(Files.exists(target.resolve("com/example/B.java")));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void watchTwice() throws IOException {
+        try (SpeckyDaemon daemon = new SpeckyDaemon(singletonList(specDirectory), target)) {
+            daemon.watch(outcome -> { });
+            daemon.watch(outcome -> { });
+        }
+    }
+
+    @Test
+    public void serve() throws IOException {
+        writeSpec("a.spec", "A");
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (SpeckyDaemon daemon = new SpeckyDaemon(singletonList(specDirectory), target)) {
+            daemon.serve(
+                new BufferedReader(new StringReader("generate\nunknown\nquit\ngenerate\n")),
+                new PrintStream(output, true, "UTF-8"));
+        }
+
+        final String[] lines = new String(output.toByteArray(), UTF_8).split("\\R");
+        assertEquals(3, lines.length);
+        assertEquals("ready", lines[0]);
+        assertEquals("ok 1 written, 0 unchanged, 0 deleted", lines[1]);
+        assertEquals("error unknown command unknown", lines[2]);
+    }
+
+    @Test
+    public void serveAfterUncheckedException() throws IOException {
+        // The generator rejects property names that are Java keywords with an unchecked exception
+        final String spec = "package com.example\n\nvalue A\n    properties\n        int class\n";
+        Files.write(specDirectory.resolve("a.spec"), spec.getBytes(UTF_8));
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (SpeckyDaemon daemon = new SpeckyDaemon(singletonList(specDirectory), target)) {
+            final PrintStream printStream = new PrintStream(output, true, "UTF-8");
+            daemon.serve(new BufferedReader(new StringReader("generate\n")), printStream);
+
+            writeSpec("a.spec", "A");
+            daemon.serve(new BufferedReader(new StringReader("generate\n")), printStream);
+        }
+
+        final String[] lines = new String(output.toByteArray(), UTF_8).split("\\R");
+        assertEquals(4, lines.length);
+        assertEquals("ready", lines[0]);
+        assertTrue(lines[1], lines[1].startsWith("error "));
+        assertEquals("ready", lines[2]);
+        assertEquals("ok 1 written, 0 unchanged, 0 deleted", lines[3]);
+    }
+
+    private void writeSpec(String fileName, String typeName) throws IOException {
+        final String spec = "package com.example\n\nvalue " + typeName + "\n    properties\n        int a\n";
+        Files.write(specDirectory.resolve(fileName), spec.getBytes(UTF_8));
+    }
+}
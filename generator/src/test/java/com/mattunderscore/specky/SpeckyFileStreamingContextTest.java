@@ -31,6 +31,26 @@ public final class SpeckyFileStreamingContextTest {
         parsingContext.parse();
     }
 
+    @Test
+    public void parseLazily() throws IOException, ParsingError {
+        final SpeckyFileStreamingContext context = new SpeckyFileStreamingContext().openFilesLazily();
+
+        context.addFileToParse(Paths.get("src/test/specky/Bean.spec"));
+        context.addFileToParse(Paths.get("src/test/specky/constraint.spec"));
+        context.addFileToParse(Paths.get("src/test/specky/licence.spec"));
+        context.addFileToParse(Paths.get("src/test/specky/model.spec"));
+        context.addFileToParse(Paths.get("src/test/specky/readme.spec"));
+        context.addFileToParse(Paths.get("src/test/specky/scope.spec"));
+        context.addFileToParse(Paths.get("src/test/specky/sections.spec"));
+        context.addFileToParse(Paths.get("src/test/specky/Value.spec"));
+        context.addFileToParse(Paths.get("src/test/specky/AbstractType.spec"));
+        context.addFileToParse(Paths.get("src/test/specky/withMod.spec"));
+
+        final SpeckyParsingContext parsingContext = context.open();
+
+        parsingContext.parse();
+    }
+
     @Test(expected = ParsingError.class)
     public void badLicence() throws IOException, ParsingError {
         final SpeckyFileStreamingContext context = new SpeckyFileStreamingContext();
@@ -0,0 +1,106 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.squareup.javapoet.JavaFile;
+
+/**
+ * Unit tests for {@link SpeckyGeneratingContext}.
+ *
+ * @author Matt Champion on 16/10/2017
+ */
+public final class SpeckyGeneratingContextTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void generateConcurrently() throws Exception {
+        final Path spec = folder.newFile("types.spec").toPath();
+        Files.write(spec, multiTypeSpec(20).getBytes(UTF_8));
+
+        final List<JavaFile> serialJavaFiles = parse(spec)
+            .generate()
+            .getJavaFiles();
+        final List<JavaFile> concurrentJavaFiles = parse(spec)
+            .generateConcurrently(4)
+            .generate()
+            .getJavaFiles();
+
+        assertEquals(61, serialJavaFiles.size());
+        assertEquals(serialJavaFiles.size(), concurrentJavaFiles.size());
+        for (int i = 0; i < serialJavaFiles.size(); i++) {
+            assertEquals(serialJavaFiles.get(i).toString(), concurrentJavaFiles.get(i).toString());
+        }
+    }
+
+    private static SpeckyGeneratingContext parse(Path spec) throws Exception {
+        final SpeckyFileStreamingContext streamingContext = new SpeckyFileStreamingContext();
+        streamingContext.addFileToParse(spec);
+        return streamingContext
+            .open()
+            .parse();
+    }
+
+    private static String multiTypeSpec(int count) {
+        final StringBuilder builder = new StringBuilder("package com.example\n\n" +
+            "type Shape\n" +
+            "    properties\n" +
+            "        String name\n\n");
+        for (int i = 0; i < count; i++) {
+            builder
+                .append("value Point").append(i).append(" : Shape\n")
+                .append("    properties\n")
+                .append("        int x\n")
+                .append("        double y\n")
+                .append("        optional String label\n")
+                .append("        List<String> tags\n")
+                .append("    options\n")
+                .append("        immutable builder\n")
+                .append("        with modification\n")
+                .append("        cached hash\n\n")
+                .append("bean Holder").append(i).append("\n")
+                .append("    properties\n")
+                .append("        Point").append(i).append(" point\n")
+                .append("        Set<String> names\n")
+                .append("    options\n")
+                .append("        builder\n\n")
+                .append("type Marker").append(i).append("\n")
+                .append("    properties\n")
+                .append("        long id\n\n");
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,323 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.googlejavaformat.java.FormatterException;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeSpec;
+
+/**
+ * Unit tests for {@link SpeckyWritingContext}.
+ *
+ * @author Matt Champion on 15/10/2017
+ */
+public final class SpeckyWritingContextTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void write() throws IOException, FormatterException {
+        final Path target = folder.getRoot().toPath();
+
+        new SpeckyWritingContext(javaFiles())
+            .targetPath(target)
+            .write();
+
+        assertWritten(target);
+    }
+
+    @Test
+    public void writeConcurrently() throws IOException, FormatterException {
+        final Path target = folder.getRoot().toPath();
+
+        new SpeckyWritingContext(javaFiles())
+            .targetPath(target)
+            .writeConcurrently(4)
+            .write();
+
+        assertWritten(target);
+    }
+
+    @Test
+    public void writeWithFormatter() throws IOException, FormatterException {
+        final Path target = folder.getRoot().toPath();
+
+        new SpeckyWritingContext(javaFiles())
+            .targetPath(target)
+            .formatter(new IndentingSourceFormatter())
+            .write();
+
+        assertWritten(target);
+        assertEquals(
+            "package com.example.a;\n\nclass Type0 {\n}\n",
+            new String(Files.readAllBytes(target.resolve("com/example/a/Type0.java")), UTF_8));
+    }
+
+    @Test
+    public void formattedSourceCache() throws IOException, FormatterException {
+        final DirectoryFormattedSourceCache cache =
+            new DirectoryFormattedSourceCache(folder.newFolder("cache").toPath(), "1.0", 1024L * 1024L);
+        final AtomicInteger formatted = new AtomicInteger(0);
+        final SourceFormatter formatter = source -> {
+            formatted.incrementAndGet();
+            return source;
+        };
+
+        new SpeckyWritingContext(javaFiles())
+            .targetPath(folder.newFolder("first").toPath())
+            .formatter(formatter)
+            .formattedSourceCache(cache)
+            .write();
+        final Path target = folder.newFolder("second").toPath();
+        new SpeckyWritingContext(javaFiles())
+            .targetPath(target)
+            .formatter(formatter)
+            .formattedSourceCache(cache)
+            .write();
+
+        assertWritten(target);
+        assertEquals(20, formatted.get());
+        assertEquals(20, cache.getHits());
+        assertEquals(20, cache.getMisses());
+    }
+
+    @Test
+    public void formattedSourceCacheKeyedByVersion() throws IOException, FormatterException {
+        final MemoryFormattedSourceCache cache = new MemoryFormattedSourceCache();
+
+        new SpeckyWritingContext(javaFiles())
+            .targetPath(folder.newFolder("first").toPath())
+            .formatter(new VersionedFormatter("1.0"))
+            .formattedSourceCache(cache)
+            .write();
+        new SpeckyWritingContext(javaFiles())
+            .targetPath(folder.newFolder("second").toPath())
+            .formatter(new VersionedFormatter("2.0"))
+            .formattedSourceCache(cache)
+            .write();
+
+        assertEquals(0, cache.getHits());
+        assertEquals(40, cache.getMisses());
+    }
+
+    @Test
+    public void skipUnchangedFiles() throws IOException, FormatterException {
+        final Path target = folder.getRoot().toPath();
+        new SpeckyWritingContext(javaFiles())
+            .targetPath(target)
+            .write();
+        final Path unchangedFile = target.resolve("com/example/a/Type0.java");
+        final FileTime lastModified = FileTime.fromMillis(0L);
+        Files.setLastModifiedTime(unchangedFile, lastModified);
+
+        final WriteSummary summary = new SpeckyWritingContext(javaFiles())
+            .targetPath(target)
+            .skipUnchangedFiles()
+            .write();
+
+        assertEquals(0, summary.getWritten());
+        assertEquals(20, summary.getUnchanged());
+        assertEquals(0, summary.getDeleted());
+        assertEquals(lastModified, Files.getLastModifiedTime(unchangedFile));
+    }
+
+    @Test
+    public void writeChangedFiles() throws IOException, FormatterException {
+        final Path target = folder.getRoot().toPath();
+        new SpeckyWritingContext(javaFiles())
+            .targetPath(target)
+            .write();
+        Files.write(target.resolve("com/example/a/Type0.java"), new byte[] {'a'});
+
+        final WriteSummary summary = new SpeckyWritingContext(javaFiles())
+            .targetPath(target)
+            .skipUnchangedFiles()
+            .write();
+
+        assertEquals(1, summary.getWritten());
+        assertEquals(19, summary.getUnchanged());
+    }
+
+    @Test
+    public void deleteStaleFiles() throws IOException, FormatterException {
+        final Path target = folder.getRoot().toPath();
+        Files.createDirectories(target.resolve("com/example/c"));
+        Files.write(target.resolve("com/example/c/Removed.java"), new byte[] {'a'});
+        Files.write(target.resolve("com/example/Removed.java"), new byte[] {'a'});
+
+        final WriteSummary summary = new SpeckyWritingContext(javaFiles())
+            .targetPath(target)
+            .deleteStaleFiles()
+            .writeConcurrently(4)
+            .write();
+
+        assertEquals(20, summary.getWritten());
+        assertEquals(2, summary.getDeleted());
+        assertFalse(Files.exists(target.resolve("com/example/c")));
+        assertFalse(Files.exists(target.resolve("com/example/Removed.java")));
+        assertWritten(target);
+    }
+
+    @Test
+    public void deletePreviousFiles() throws IOException, FormatterException {
+        final Path target = folder.getRoot().toPath();
+        Files.createDirectories(target.resolve("com/example/c"));
+        final Path previousFile = target.resolve("com/example/c/Removed.java");
+        Files.write(previousFile, new byte[] {'a'});
+        final Path otherFile = target.resolve("com/example/Other.java");
+        Files.write(otherFile, new byte[] {'a'});
+
+        final WriteSummary summary = new SpeckyWritingContext(javaFiles())
+            .targetPath(target)
+            .deleteStaleFiles(Arrays.asList(previousFile, target.resolve("com/example/a/Type0.java")))
+            .write();
+
+        assertEquals(1, summary.getDeleted());
+        assertFalse(Files.exists(target.resolve("com/example/c")));
+        assertTrue(Files.exists(otherFile));
+        assertWritten(target);
+    }
+
+    @Test
+    public void deleteStaleFilesWithoutTarget() throws IOException, FormatterException {
+        final Path target = folder.getRoot().toPath().resolve("missing");
+
+        final WriteSummary summary = new SpeckyWritingContext(emptyList())
+            .targetPath(target)
+            .deleteStaleFiles()
+            .write();
+
+        assertEquals(0, summary.getDeleted());
+        assertFalse(Files.exists(target));
+    }
+
+    @Test
+    public void formatterFailuresAggregated() throws IOException {
+        final Path target = folder.getRoot().toPath();
+        final List<JavaFile> javaFiles = Arrays.asList(
+            badFile("BadA"),
+            JavaFile.builder("com.example.a", TypeSpec.classBuilder("Good").build()).build(),
+            badFile("BadB"));
+
+        try {
+            new SpeckyWritingContext(javaFiles)
+                .targetPath(target)
+                .writeConcurrently(2)
+                .write();
+            fail("Expected the formatter to fail");
+        }
+        catch (FormatterException e) {
+            assertEquals(2, e.getSuppressed().length);
+        }
+
+        assertTrue(Files.exists(target.resolve("com/example/a/Good.java")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noWriteThreads() {
+        new SpeckyWritingContext(javaFiles()).writeConcurrently(0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void writeTwice() throws IOException, FormatterException {
+        final SpeckyWritingContext context = new SpeckyWritingContext(javaFiles())
+            .targetPath(folder.getRoot().toPath());
+
+        context.write();
+        context.write();
+    }
+
+    private static final class VersionedFormatter implements SourceFormatter {
+        private final String version;
+
+        private VersionedFormatter(String version) {
+            this.version = version;
+        }
+
+        @Override
+        public String format(String source) {
+            return source;
+        }
+
+        @Override
+        public String getVersion() {
+            return version;
+        }
+    }
+
+    private static List<JavaFile> javaFiles() {
+        return IntStream
+            .range(0, 20)
+            .mapToObj(i -> JavaFile
+                .builder(
+                    "com.example." + (i % 2 == 0 ? "a" : "b"),
+                    TypeSpec.classBuilder("Type" + i).build())
+                .build())
+            .collect(toList());
+    }
+
+    private static JavaFile badFile(String name) {
+        return JavaFile
+            .builder(
+                "com.example.a",
+                TypeSpec
+                    .classBuilder(name)
+                    .addMethod(MethodSpec
+                        .methodBuilder("method")
+                        .addCode("this is not java(\n")
+                        .build())
+                    .build())
+            .build();
+    }
+
+    private static void assertWritten(Path target) {
+        for (int i = 0; i < 20; i++) {
+            final String packageDirectory = i % 2 == 0 ? "com/example/a" : "com/example/b";
+            assertTrue(Files.exists(target.resolve(packageDirectory).resolve("Type" + i + ".java")));
+        }
+    }
+}
@@ -29,6 +29,8 @@ import com.mattunderscore.specky.context.file.TemplateContext;
 import com.mattunderscore.specky.literal.model.LiteralDesc;
 
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static java.util.Optional.empty;
 
@@ -38,6 +40,8 @@ import static java.util.Optional.empty;
  */
 public abstract class AbstractChildScope extends AbstractScope {
     private final Scope parentScope;
+    private final ConcurrentMap<String, LicenceTemplate> compiledTemplates = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> evaluatedTemplates = new ConcurrentHashMap<>();
 
     /**
      * Constructor.
@@ -146,4 +150,26 @@ public abstract class AbstractChildScope extends AbstractScope {
             .file(getFile())
             .build();
     }
+
+    /**
+     * Templates are compiled once for the scope. The values of templates that do not reference the type name are the
+     * same for every type built in the same year so are evaluated once for each year.
+     */
+    @Override
+    public final String evaluateTemplate(String template, String typeName) {
+        if (template == null) {
+            return null;
+        }
+
+        final LicenceTemplate compiledTemplate = compiledTemplates.computeIfAbsent(template, LicenceTemplate::compile);
+        final EvaluateTemplate evaluateTemplate = new EvaluateTemplate(toTemplateContext(typeName));
+        if (compiledTemplate.referencesTypeName()) {
+            return evaluateTemplate.apply(compiledTemplate);
+        }
+        else {
+            return evaluatedTemplates.computeIfAbsent(
+                evaluateTemplate.getYear() + '\0' + template,
+                key -> evaluateTemplate.apply(compiledTemplate));
+        }
+    }
 }
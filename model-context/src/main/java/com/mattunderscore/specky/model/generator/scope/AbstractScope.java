@@ -80,4 +80,9 @@ public abstract class AbstractScope implements Scope {
             .typeName(typeName)
             .build();
     }
+
+    @Override
+    public String evaluateTemplate(String template, String typeName) {
+        return new EvaluateTemplate(toTemplateContext(typeName)).apply(template);
+    }
 }
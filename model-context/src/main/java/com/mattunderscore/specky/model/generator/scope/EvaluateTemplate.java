@@ -1,12 +1,10 @@
 package com.mattunderscore.specky.model.generator.scope;
 
 import static java.time.LocalDateTime.ofInstant;
-import static java.util.regex.Pattern.compile;
 
 import java.nio.file.Path;
 import java.time.ZoneId;
 import java.util.function.Function;
-import java.util.regex.Pattern;
 
 import com.mattunderscore.specky.context.file.TemplateContext;
 
@@ -15,18 +13,6 @@ import com.mattunderscore.specky.context.file.TemplateContext;
  * @author Matt Champion 27/02/2017
  */
 public final class EvaluateTemplate implements Function<String, String> {
-    private static final Pattern[] PATTERNS = new Pattern[] {
-        compile("(?<!\\\\)\\$\\{type}"),
-        compile("(?<!\\\\)\\$\\{author}"),
-        compile("(?<!\\\\)\\$\\{copyrightHolder}"),
-        compile("(?<!\\\\)\\$\\{year}"),
-        compile("(?<!\\\\)\\$\\{fileName}"),
-        compile("\\\\\\$\\{type}"),
-        compile("\\\\\\$\\{author}"),
-        compile("\\\\\\$\\{copyrightHolder}"),
-        compile("\\\\\\$\\{year}"),
-        compile("\\\\\\$\\{fileName}")
-    };
     private final String[] substitutions;
 
     /**
@@ -47,15 +33,11 @@ public final class EvaluateTemplate implements Function<String, String> {
             author,
             copyrightHolder,
             Integer.toString(ofInstant(templateContext.getBuildTime(), ZoneId.systemDefault()).getYear()),
-            fileName,
-            "\\${type}",
-            "\\${author}",
-            "\\${copyrightHolder}",
-            "\\${year}",
-            "\\${fileName}"
+            fileName
         };
 
-        assert substitutions.length == PATTERNS.length : "Must be the same number of patterns and substitutions";
+        assert substitutions.length == LicenceTemplate.Placeholder.values().length :
+            "Must be a substitution for each placeholder";
     }
 
     @Override
@@ -64,16 +46,20 @@ public final class EvaluateTemplate implements Function<String, String> {
             return null;
         }
 
-        String value = template;
-
-        for (int i = 0; i < PATTERNS.length; i++) {
-            value = replace(value, PATTERNS[i], substitutions[i]);
-        }
+        return apply(LicenceTemplate.compile(template));
+    }
 
-        return value;
+    /**
+     * @return the year substituted into templates
+     */
+    /*package*/ String getYear() {
+        return substitutions[LicenceTemplate.Placeholder.YEAR.ordinal()];
     }
 
-    private static String replace(String template, Pattern pattern, String substitution) {
-        return pattern.matcher(template).replaceAll(substitution);
+    /**
+     * Evaluate a compiled template.
+     */
+    /*package*/ String apply(LicenceTemplate template) {
+        return template.evaluate(substitutions);
     }
 }
@@ -0,0 +1,166 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky.model.generator.scope;
+
+import com.mattunderscore.specky.context.file.TemplateContext;
+import com.mattunderscore.specky.literal.model.LiteralDesc;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Scope that flattens the chain of parent scopes of a complete scope. The author, package, copyright holder and
+ * default licence are resolved once. Types, default values and licences are resolved through the chain the first
+ * time they are requested, after that they are resolved from a single map. Unresolved names are also kept so each
+ * lookup is resolved through the chain at most once.
+ * <p>
+ * The scopes are frozen once the section is complete. The resolution is a snapshot of the scope it is created from
+ * so that scope should not change after it is frozen.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+@ThreadSafe
+public final class FrozenScope extends AbstractScope {
+    private final Scope scope;
+    private final String author;
+    private final String packageName;
+    private final String copyrightHolder;
+    private final Path file;
+    private final Optional<String> defaultLicence;
+    private final ConcurrentMap<String, Optional<String>> licences = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Optional<String>> types = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Optional<String>> optionalTypes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Optional<LiteralDesc>> values = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Optional<LiteralDesc>> optionalValues = new ConcurrentHashMap<>();
+
+    private FrozenScope(Scope scope) {
+        this.scope = scope;
+        author = scope.getAuthor();
+        packageName = scope.getPackage();
+        copyrightHolder = scope.getCopyrightHolder();
+        file = scope.getFile();
+        defaultLicence = scope.resolveLicence((String) null);
+    }
+
+    /**
+     * @return a frozen scope for the scope
+     */
+    public static Scope freeze(Scope scope) {
+        if (scope instanceof FrozenScope) {
+            return scope;
+        }
+
+        return new FrozenScope(scope);
+    }
+
+    @Override
+    public String getAuthor() {
+        return author;
+    }
+
+    @Override
+    public String getPackage() {
+        return packageName;
+    }
+
+    @Override
+    public String getCopyrightHolder() {
+        return copyrightHolder;
+    }
+
+    @Override
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public Optional<String> resolveLicence(String name) {
+        if (name == null) {
+            return defaultLicence;
+        }
+
+        final Optional<String> licence = licences.get(name);
+        if (licence != null) {
+            return licence;
+        }
+
+        return licences.computeIfAbsent(name, scope::resolveLicence);
+    }
+
+    @Override
+    public Optional<String> resolveType(String name) {
+        final Optional<String> type = types.get(name);
+        if (type != null) {
+            return type;
+        }
+
+        return types.computeIfAbsent(name, scope::resolveType);
+    }
+
+    @Override
+    public Optional<String> resolveType(String typeName, boolean optional) {
+        if (!optional) {
+            return resolveType(typeName);
+        }
+
+        final Optional<String> type = optionalTypes.get(typeName);
+        if (type != null) {
+            return type;
+        }
+
+        return optionalTypes.computeIfAbsent(typeName, name -> scope.resolveType(name, true));
+    }
+
+    @Override
+    public Optional<LiteralDesc> resolveValue(String resolvedType, boolean optional) {
+        final ConcurrentMap<String, Optional<LiteralDesc>> resolvedValues = optional ? optionalValues : values;
+        final Optional<LiteralDesc> value = resolvedValues.get(resolvedType);
+        if (value != null) {
+            return value;
+        }
+
+        return resolvedValues.computeIfAbsent(resolvedType, type -> scope.resolveValue(type, optional));
+    }
+
+    @Override
+    public TemplateContext toTemplateContext(String typeName) {
+        return TemplateContext
+            .builder()
+            .typeName(typeName)
+            .author(author)
+            .copyrightHolder(copyrightHolder)
+            .file(file)
+            .build();
+    }
+
+    @Override
+    public String evaluateTemplate(String template, String typeName) {
+        return scope.evaluateTemplate(template, typeName);
+    }
+}
@@ -0,0 +1,155 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky.model.generator.scope;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.jcip.annotations.Immutable;
+
+/**
+ * Template compiled into literal segments and placeholders so that it can be evaluated in a single pass.
+ * <p>
+ * A placeholder preceded by a backslash is escaped and evaluates to the placeholder without the backslash.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+@Immutable
+/*package*/ final class LicenceTemplate {
+    private final String[] literals;
+    private final Placeholder[] placeholders;
+    private final int literalLength;
+    private final boolean referencesTypeName;
+
+    private LicenceTemplate(String[] literals, Placeholder[] placeholders) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+
+        int length = 0;
+        for (final String literal : literals) {
+            length += literal.length();
+        }
+        literalLength = length;
+
+        boolean typeName = false;
+        for (final Placeholder placeholder : placeholders) {
+            typeName |= placeholder == Placeholder.TYPE;
+        }
+        referencesTypeName = typeName;
+    }
+
+    /**
+     * @return if the value of the template depends on the name of the type
+     */
+    public boolean referencesTypeName() {
+        return referencesTypeName;
+    }
+
+    /**
+     * Evaluate the template. The substitutions are indexed by the ordinal of the {@link Placeholder}.
+     */
+    public String evaluate(String[] substitutions) {
+        int length = literalLength;
+        for (final Placeholder placeholder : placeholders) {
+            length += substitutions[placeholder.ordinal()].length();
+        }
+
+        final StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < placeholders.length; i++) {
+            builder
+                .append(literals[i])
+                .append(substitutions[placeholders[i].ordinal()]);
+        }
+        return builder.append(literals[placeholders.length]).toString();
+    }
+
+    /**
+     * Compile a template.
+     */
+    public static LicenceTemplate compile(String template) {
+        final List<String> literals = new ArrayList<>();
+        final List<Placeholder> placeholders = new ArrayList<>();
+
+        final StringBuilder literal = new StringBuilder(template.length());
+        int index = 0;
+        while (index < template.length()) {
+            final int start = template.indexOf("${", index);
+            if (start < 0) {
+                break;
+            }
+
+            final Placeholder placeholder = Placeholder.at(template, start);
+            if (placeholder == null) {
+                literal.append(template, index, start + 2);
+                index = start + 2;
+            }
+            else if (start > 0 && template.charAt(start - 1) == '\\') {
+                literal
+                    .append(template, index, start - 1)
+                    .append(placeholder.key);
+                index = start + placeholder.key.length();
+            }
+            else {
+                literal.append(template, index, start);
+                literals.add(literal.toString());
+                literal.setLength(0);
+                placeholders.add(placeholder);
+                index = start + placeholder.key.length();
+            }
+        }
+        literals.add(literal.append(template, index, template.length()).toString());
+
+        return new LicenceTemplate(
+            literals.toArray(new String[literals.size()]),
+            placeholders.toArray(new Placeholder[placeholders.size()]));
+    }
+
+    /**
+     * The placeholders supported by templates.
+     */
+    /*package*/ enum Placeholder {
+        TYPE("${type}"),
+        AUTHOR("${author}"),
+        COPYRIGHT_HOLDER("${copyrightHolder}"),
+        YEAR("${year}"),
+        FILE_NAME("${fileName}");
+
+        private static final Placeholder[] PLACEHOLDERS = values();
+        private final String key;
+
+        Placeholder(String key) {
+            this.key = key;
+        }
+
+        private static Placeholder at(String template, int index) {
+            for (final Placeholder placeholder : PLACEHOLDERS) {
+                if (template.startsWith(placeholder.key, index)) {
+                    return placeholder;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -61,4 +61,9 @@ public interface Scope extends DefaultValueResolver, TypeResolver, LicenceResolv
      * @return a template context for the scope
      */
     TemplateContext toTemplateContext(String typeName);
+
+    /**
+     * @return the template evaluated in the scope for a type, {@code null} if the template is {@code null}
+     */
+    String evaluateTemplate(String template, String typeName);
 }
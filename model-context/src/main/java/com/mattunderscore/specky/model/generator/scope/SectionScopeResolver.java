@@ -79,7 +79,7 @@ public final class SectionScopeResolver implements SectionScopeBuilder {
 
     @Override
     public void completeScope() {
-        final Scope scope = pendingScope.toScope(defaultScope);
+        final Scope scope = FrozenScope.freeze(pendingScope.toScope(defaultScope));
         final String sectionName = pendingScope.getSectionName();
         if (sectionName == null) {
             defaultScope = scope;
@@ -27,18 +27,21 @@ package com.mattunderscore.specky.type.resolver;
 
 import static java.util.Optional.ofNullable;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.jcip.annotations.ThreadSafe;
 
 /**
- * {@link TypeResolver} for specified types.
+ * {@link TypeResolver} for specified types. Types may be registered and resolved from multiple threads.
  *
  * @author Matt Champion on 08/06/16
  */
+@ThreadSafe
 public final class SpecTypeResolver implements MutableTypeResolver {
-    private final Map<String, String> specs = new HashMap<>();
+    private final ConcurrentMap<String, String> specs = new ConcurrentHashMap<>();
 
     @Override
     public CompletableFuture<Void> registerTypeName(String packageName, String typeName) {
@@ -0,0 +1,154 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky.model.generator.scope;
+
+import com.mattunderscore.specky.literal.model.LiteralDesc;
+import com.mattunderscore.specky.literal.model.UnstructuredLiteral;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+import static java.util.Optional.empty;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+/**
+ * Unit tests for {@link FrozenScope}.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+public final class FrozenScopeTest {
+    @Mock
+    private Scope scope;
+
+    private final Path file = Paths.get("./path");
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+
+        when(scope.getAuthor()).thenReturn("author");
+        when(scope.getPackage()).thenReturn("package");
+        when(scope.getCopyrightHolder()).thenReturn("copyright");
+        when(scope.getFile()).thenReturn(file);
+        when(scope.resolveLicence((String) null)).thenReturn(Optional.of("licence"));
+    }
+
+    @After
+    public void postConditions() {
+        verify(scope).getAuthor();
+        verify(scope).getPackage();
+        verify(scope).getCopyrightHolder();
+        verify(scope).getFile();
+        verify(scope).resolveLicence((String) null);
+        verifyNoMoreInteractions(scope);
+    }
+
+    @Test
+    public void flattened() {
+        final Scope frozenScope = FrozenScope.freeze(scope);
+
+        assertEquals("author", frozenScope.getAuthor());
+        assertEquals("package", frozenScope.getPackage());
+        assertEquals("copyright", frozenScope.getCopyrightHolder());
+        assertEquals(file, frozenScope.getFile());
+        assertEquals("licence", frozenScope.resolveLicence((String) null).get());
+        assertEquals("licence", frozenScope.resolveLicence((String) null).get());
+    }
+
+    @Test
+    public void freezeFrozen() {
+        final Scope frozenScope = FrozenScope.freeze(scope);
+
+        assertSame(frozenScope, FrozenScope.freeze(frozenScope));
+    }
+
+    @Test
+    public void resolveType() {
+        when(scope.resolveType("Type")).thenReturn(Optional.of("com.example.Type"));
+        final Scope frozenScope = FrozenScope.freeze(scope);
+
+        assertEquals("com.example.Type", frozenScope.resolveType("Type").get());
+        assertSame(frozenScope.resolveType("Type"), frozenScope.resolveType("Type"));
+        verify(scope).resolveType("Type");
+    }
+
+    @Test
+    public void resolveOptionalType() {
+        when(scope.resolveType("int", true)).thenReturn(Optional.of("java.lang.Integer"));
+        when(scope.resolveType("int")).thenReturn(Optional.of("int"));
+        final Scope frozenScope = FrozenScope.freeze(scope);
+
+        assertEquals("java.lang.Integer", frozenScope.resolveType("int", true).get());
+        assertEquals("java.lang.Integer", frozenScope.resolveType("int", true).get());
+        assertEquals("int", frozenScope.resolveType("int", false).get());
+        verify(scope).resolveType("int", true);
+        verify(scope).resolveType("int");
+    }
+
+    @Test
+    public void resolveUnknownType() {
+        when(scope.resolveType("Unknown")).thenReturn(empty());
+        final Scope frozenScope = FrozenScope.freeze(scope);
+
+        assertFalse(frozenScope.resolveType("Unknown").isPresent());
+        assertFalse(frozenScope.resolveType("Unknown").isPresent());
+        verify(scope).resolveType("Unknown");
+    }
+
+    @Test
+    public void resolveValue() {
+        final LiteralDesc value = UnstructuredLiteral.builder().literal("x").build();
+        when(scope.resolveValue("com.example.Type", false)).thenReturn(Optional.of(value));
+        when(scope.resolveValue("com.example.Type", true)).thenReturn(empty());
+        final Scope frozenScope = FrozenScope.freeze(scope);
+
+        assertEquals(value, frozenScope.resolveValue("com.example.Type", false).get());
+        assertEquals(value, frozenScope.resolveValue("com.example.Type", false).get());
+        assertFalse(frozenScope.resolveValue("com.example.Type", true).isPresent());
+        verify(scope).resolveValue("com.example.Type", false);
+        verify(scope).resolveValue("com.example.Type", true);
+    }
+
+    @Test
+    public void resolveLicence() {
+        when(scope.resolveLicence("name")).thenReturn(Optional.of("named licence"));
+        final Scope frozenScope = FrozenScope.freeze(scope);
+
+        assertEquals("named licence", frozenScope.resolveLicence("name").get());
+        assertEquals("named licence", frozenScope.resolveLicence("name").get());
+        verify(scope).resolveLicence("name");
+    }
+}
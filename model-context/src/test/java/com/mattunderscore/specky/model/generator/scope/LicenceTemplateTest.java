@@ -0,0 +1,81 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky.model.generator.scope;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link LicenceTemplate}.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+public final class LicenceTemplateTest {
+    private static final String[] SUBSTITUTIONS = new String[] {"TestType", "author", "Matt", "2017", "test.spec"};
+
+    @Test
+    public void evaluate() {
+        final LicenceTemplate template =
+            LicenceTemplate.compile("${author} \\${author} ${copyrightHolder} ${type} ${year} ${fileName}");
+
+        assertTrue(template.referencesTypeName());
+        assertEquals("author ${author} Matt TestType 2017 test.spec", template.evaluate(SUBSTITUTIONS));
+    }
+
+    @Test
+    public void evaluateWithoutPlaceholders() {
+        final LicenceTemplate template = LicenceTemplate.compile("No placeholders $ ${unknown} {type}");
+
+        assertFalse(template.referencesTypeName());
+        assertEquals("No placeholders $ ${unknown} {type}", template.evaluate(SUBSTITUTIONS));
+    }
+
+    @Test
+    public void substitutionsAreNotEvaluated() {
+        final LicenceTemplate template = LicenceTemplate.compile("${author}${type}");
+
+        assertEquals(
+            "${type}TestType",
+            template.evaluate(new String[] {"TestType", "${type}", "Matt", "2017", "test.spec"}));
+    }
+
+    @Test
+    public void authorWithTypePlaceholder() {
+        final LicenceTemplate template = LicenceTemplate.compile("Copyright ${year} ${author}");
+
+        assertFalse(template.referencesTypeName());
+        assertEquals(
+            "Copyright 2017 ${type}",
+            template.evaluate(new String[] {"TestType", "${type}", "Matt", "2017", "test.spec"}));
+    }
+
+    @Test
+    public void evaluateEmpty() {
+        assertEquals("", LicenceTemplate.compile("").evaluate(SUBSTITUTIONS));
+    }
+}
@@ -42,6 +42,8 @@ import java.util.Optional;
 import static com.mattunderscore.specky.model.generator.scope.EmptyScope.INSTANCE;
 import static java.util.Optional.empty;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -197,4 +199,22 @@ public final class ScopeImplTest {
         assertEquals("author", templateContext.getAuthor());
         assertEquals("copyright", templateContext.getCopyrightHolder());
     }
+
+    @Test
+    public void evaluateTemplate() throws Exception {
+        final Scope scope = new ScopeImpl(INSTANCE, valueResolver, typeResolver, licenceResolver, "author", "package", "copyright", file);
+
+        assertEquals("Type by author", scope.evaluateTemplate("${type} by ${author}", "Type"));
+        assertEquals("OtherType by author", scope.evaluateTemplate("${type} by ${author}", "OtherType"));
+        assertNull(scope.evaluateTemplate(null, "Type"));
+    }
+
+    @Test
+    public void evaluateTemplateWithoutTypeName() throws Exception {
+        final Scope scope = new ScopeImpl(INSTANCE, valueResolver, typeResolver, licenceResolver, "author", "package", "copyright", file);
+
+        final String value = scope.evaluateTemplate("Copyright ${copyrightHolder} ${fileName}", "Type");
+        assertEquals("Copyright copyright path", value);
+        assertSame(value, scope.evaluateTemplate("Copyright ${copyrightHolder} ${fileName}", "OtherType"));
+    }
 }
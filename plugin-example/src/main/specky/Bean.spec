@@ -52,4 +52,10 @@ bean BeanWithList
     properties
         List<String> names
 
+bean BeanWithNullProperties
+    properties
+        int id
+        String name default null
+        List<String> names default null
+
 bean BeanPersonType : PersonType
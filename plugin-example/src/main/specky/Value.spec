@@ -63,6 +63,13 @@ value ValueWithList
     options
         builder
 
+value ValueWithSharedCollections
+    properties
+        List<String> names
+        Set<String> tags
+    options
+        immutable builder
+
 value ValueWithExtraType
     properties
         ExtraType extra
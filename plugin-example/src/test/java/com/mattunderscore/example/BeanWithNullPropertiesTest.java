@@ -0,0 +1,70 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.example;
+
+import com.example.BeanWithNullProperties;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link BeanWithNullProperties}.
+ * @author Matt Champion on 18/10/17
+ */
+public final class BeanWithNullPropertiesTest {
+    @Test
+    public void defaults() {
+        final BeanWithNullProperties value = new BeanWithNullProperties();
+
+        assertNull(value.getName());
+        assertNull(value.getNames());
+    }
+
+    @Test
+    public void equality() {
+        final BeanWithNullProperties value0 = new BeanWithNullProperties();
+        final BeanWithNullProperties value1 = new BeanWithNullProperties();
+
+        assertTrue(value0.equals(value1));
+        assertTrue(value1.equals(value0));
+        assertEquals(value0.hashCode(), value1.hashCode());
+    }
+
+    @Test
+    public void notEquals() {
+        final BeanWithNullProperties value0 = new BeanWithNullProperties();
+        final BeanWithNullProperties value1 = new BeanWithNullProperties();
+        value1.setName("name");
+        value1.setNames(Arrays.asList("a", "b"));
+
+        assertFalse(value0.equals(value1));
+        assertFalse(value1.equals(value0));
+    }
+}
@@ -0,0 +1,123 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.example;
+
+import com.example.ValueWithSharedCollections;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link ValueWithSharedCollections}.
+ * @author Matt Champion on 16/10/2017
+ */
+public final class ValueWithSharedCollectionsTest {
+    @Test
+    public void addElements() {
+        final ValueWithSharedCollections value = ValueWithSharedCollections
+            .builder()
+            .addName("a")
+            .addName("b")
+            .addTag("x")
+            .addTag("y")
+            .addTag("x")
+            .build();
+
+        assertEquals(Arrays.asList("a", "b"), value.getNames());
+        assertEquals(new HashSet<>(Arrays.asList("x", "y")), value.getTags());
+    }
+
+    @Test
+    public void earlierBuildersUnchanged() {
+        final ValueWithSharedCollections.Builder builder0 = ValueWithSharedCollections
+            .builder()
+            .addName("a")
+            .addTag("x");
+        final ValueWithSharedCollections.Builder builder1 = builder0.addName("b").addTag("y");
+        final ValueWithSharedCollections.Builder builder2 = builder0.addName("c").addTag("z");
+
+        assertEquals(Arrays.asList("a"), builder0.build().getNames());
+        assertEquals(new HashSet<>(Arrays.asList("x")), builder0.build().getTags());
+        assertEquals(Arrays.asList("a", "b"), builder1.build().getNames());
+        assertEquals(new HashSet<>(Arrays.asList("x", "y")), builder1.build().getTags());
+        assertEquals(Arrays.asList("a", "c"), builder2.build().getNames());
+        assertEquals(new HashSet<>(Arrays.asList("x", "z")), builder2.build().getTags());
+    }
+
+    @Test
+    public void builtValuesUnchanged() {
+        final ValueWithSharedCollections.Builder builder = ValueWithSharedCollections.builder().addName("a");
+        final ValueWithSharedCollections value = builder.build();
+        builder.addName("b").addName("c");
+
+        assertEquals(Arrays.asList("a"), value.getNames());
+    }
+
+    @Test
+    public void addAfterSet() {
+        final ValueWithSharedCollections value = ValueWithSharedCollections
+            .builder()
+            .names(Arrays.asList("a", "b"))
+            .tags(new HashSet<>(Arrays.asList("x")))
+            .addName("c")
+            .addTag("y")
+            .build();
+
+        assertEquals(Arrays.asList("a", "b", "c"), value.getNames());
+        assertEquals(new HashSet<>(Arrays.asList("x", "y")), value.getTags());
+    }
+
+    @Test
+    public void addManyElements() {
+        ValueWithSharedCollections.Builder builder = ValueWithSharedCollections.builder();
+        for (int i = 0; i < 10000; i++) {
+            builder = builder.addName(Integer.toString(i)).addTag(Integer.toString(i % 100));
+        }
+        final ValueWithSharedCollections value = builder.build();
+
+        final List<String> expected = IntStream
+            .range(0, 10000)
+            .mapToObj(Integer::toString)
+            .collect(Collectors.toList());
+        assertEquals(expected, value.getNames());
+        assertEquals(100, value.getTags().size());
+    }
+
+    @Test
+    public void empty() {
+        final ValueWithSharedCollections value = ValueWithSharedCollections.builder().build();
+
+        assertEquals(emptyList(), value.getNames());
+        assertEquals(emptySet(), value.getTags());
+    }
+}
@@ -0,0 +1,170 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky.processor;
+
+import static java.util.Collections.singleton;
+import static java.util.stream.Collectors.toList;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+
+import com.google.googlejavaformat.java.FormatterException;
+import com.mattunderscore.specky.ParsingError;
+import com.mattunderscore.specky.SpeckyFileStreamingContext;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Annotation processor that generates the types of specification files during compilation. The generated source
+ * files are written through the {@link javax.annotation.processing.Filer} so they are compiled in the same
+ * compilation.
+ * <p>
+ * The specification directories are taken from {@link SpecDirectories} annotations and from the
+ * {@value #SPEC_DIRECTORIES_OPTION} processor option. The option is a list of directories separated by the path
+ * separator. When the option is set the processor runs without needing an annotation.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+@NotThreadSafe
+@SupportedOptions(SpeckyProcessor.SPEC_DIRECTORIES_OPTION)
+public final class SpeckyProcessor extends AbstractProcessor {
+    /**
+     * Processor option for the directories containing specification files.
+     */
+    public static final String SPEC_DIRECTORIES_OPTION = "specky.specDirectories";
+    private boolean generated;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        if (processingEnv != null && processingEnv.getOptions().get(SPEC_DIRECTORIES_OPTION) != null) {
+            // Run in every round, even when no annotations are present
+            return singleton("*");
+        }
+
+        return singleton(SpecDirectories.class.getName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (generated || roundEnv.processingOver()) {
+            return false;
+        }
+
+        final Set<Path> directories = new LinkedHashSet<>();
+        final String option = processingEnv.getOptions().get(SPEC_DIRECTORIES_OPTION);
+        if (option != null) {
+            Stream
+                .of(option.split(File.pathSeparator))
+                .filter(directory -> !directory.trim().isEmpty())
+                .forEach(directory -> directories.add(Paths.get(directory.trim())));
+        }
+
+        final List<Element> originatingElements = new ArrayList<>();
+        for (final Element element : roundEnv.getElementsAnnotatedWith(SpecDirectories.class)) {
+            originatingElements.add(element);
+            Stream
+                .of(element.getAnnotation(SpecDirectories.class).value())
+                .forEach(directory -> directories.add(Paths.get(directory)));
+        }
+
+        if (directories.isEmpty()) {
+            return false;
+        }
+
+        // The generated types are only needed once, later rounds process the generated sources
+        generated = true;
+        try {
+            generate(directories, originatingElements.toArray(new Element[originatingElements.size()]));
+        }
+        catch (IOException | FormatterException | RuntimeException e) {
+            // Report any failure against the compilation instead of failing the compiler
+            processingEnv
+                .getMessager()
+                .printMessage(Diagnostic.Kind.ERROR, "Failed to generate types: " + e.getMessage());
+        }
+        catch (ParsingError e) {
+            processingEnv
+                .getMessager()
+                .printMessage(Diagnostic.Kind.ERROR, "Failed to parse specification files, " + e.getMessage());
+        }
+
+        return false;
+    }
+
+    private void generate(Set<Path> directories, Element[] originatingElements)
+            throws IOException, ParsingError, FormatterException {
+
+        final SpeckyFileStreamingContext streamingContext = new SpeckyFileStreamingContext();
+        for (final Path directory : directories) {
+            if (!Files.isDirectory(directory)) {
+                processingEnv
+                    .getMessager()
+                    .printMessage(Diagnostic.Kind.WARNING, "Specification directory not found " + directory);
+                continue;
+            }
+
+            final List<Path> specFiles;
+            try (Stream<Path> files = Files.walk(directory)) {
+                specFiles = files
+                    .filter(file -> file.getFileName().toString().endsWith(".spec"))
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(toList());
+            }
+            specFiles.forEach(streamingContext::addFileToParse);
+        }
+
+        final int files = streamingContext
+            .open()
+            .parse()
+            .generate()
+            .writeTo(processingEnv.getFiler(), originatingElements);
+
+        processingEnv
+            .getMessager()
+            .printMessage(Diagnostic.Kind.NOTE, "Generated " + files + " types from specification files");
+    }
+}
@@ -0,0 +1,167 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky.processor;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link SpeckyProcessor}.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+public final class SpeckyProcessorTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private Path specDirectory;
+    private Path sourceOutput;
+    private Path classOutput;
+
+    @Before
+    public void setUp() throws IOException {
+        specDirectory = folder.newFolder("specky").toPath();
+        sourceOutput = folder.newFolder("generated-sources").toPath();
+        classOutput = folder.newFolder("classes").toPath();
+        Files.write(
+            specDirectory.resolve("point.spec"),
+            ("package com.example\n\n" +
+                "value Point\n" +
+                "    properties\n" +
+                "        int x\n" +
+                "        int y\n").getBytes(UTF_8));
+    }
+
+    @Test
+    public void annotation() {
+        final String source = "package com.example;\n\n" +
+            "@com.mattunderscore.specky.processor.SpecDirectories(\"" + escape(specDirectory) + "\")\n" +
+            "public class Usage {\n" +
+            "    public int sum(Point point) {\n" +
+            "        return point.getX() + point.getY();\n" +
+            "    }\n" +
+            "}\n";
+
+        assertTrue(compile(source, new ArrayList<>()));
+        assertTrue(Files.isRegularFile(sourceOutput.resolve("com/example/Point.java")));
+        assertTrue(Files.isRegularFile(classOutput.resolve("com/example/Point.class")));
+        assertTrue(Files.isRegularFile(classOutput.resolve("com/example/Usage.class")));
+    }
+
+    @Test
+    public void option() {
+        final String source = "package com.example;\n\n" +
+            "public class Usage {\n" +
+            "    public int sum(Point point) {\n" +
+            "        return point.getX() + point.getY();\n" +
+            "    }\n" +
+            "}\n";
+
+        final List<String> options = new ArrayList<>();
+        options.add("-A" + SpeckyProcessor.SPEC_DIRECTORIES_OPTION + "=" + specDirectory);
+        assertTrue(compile(source, options));
+        assertTrue(Files.isRegularFile(classOutput.resolve("com/example/Point.class")));
+    }
+
+    @Test
+    public void noSpecDirectories() {
+        final String source = "package com.example;\n\npublic class Usage {\n}\n";
+
+        assertTrue(compile(source, new ArrayList<>()));
+        assertFalse(Files.exists(sourceOutput.resolve("com/example/Point.java")));
+    }
+
+    @Test
+    public void badSpec() throws IOException {
+        Files.write(specDirectory.resolve("bad.spec"), "package com.example\n\nvalue\n".getBytes(UTF_8));
+        final String source = "package com.example;\n\n" +
+            "@com.mattunderscore.specky.processor.SpecDirectories(\"" + escape(specDirectory) + "\")\n" +
+            "public class Usage {\n" +
+            "}\n";
+
+        assertFalse(compile(source, new ArrayList<>()));
+    }
+
+    @Test
+    public void uncheckedException() throws IOException {
+        // The generator rejects property names that are Java keywords with an unchecked exception
+        Files.write(
+            specDirectory.resolve("point.spec"),
+            "package com.example\n\nvalue Point\n    properties\n        int class\n".getBytes(UTF_8));
+        final String source = "package com.example;\n\n" +
+            "@com.mattunderscore.specky.processor.SpecDirectories(\"" + escape(specDirectory) + "\")\n" +
+            "public class Usage {\n" +
+            "}\n";
+
+        assertFalse(compile(source, new ArrayList<>()));
+    }
+
+    private boolean compile(String source, List<String> options) {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final JavaFileObject sourceFile =
+            new SimpleJavaFileObject(URI.create("string:///com/example/Usage.java"), JavaFileObject.Kind.SOURCE) {
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return source;
+                }
+            };
+
+        options.addAll(asList("-d", classOutput.toString(), "-s", sourceOutput.toString()));
+        final JavaCompiler.CompilationTask task = compiler.getTask(
+            null,
+            null,
+            new DiagnosticCollector<>(),
+            options,
+            null,
+            singletonList(sourceFile));
+        task.setProcessors(singletonList(new SpeckyProcessor()));
+        return task.call();
+    }
+
+    private static String escape(Path path) {
+        return path.toString().replace("\\", "\\\\");
+    }
+}
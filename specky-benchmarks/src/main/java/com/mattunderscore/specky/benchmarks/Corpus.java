@@ -0,0 +1,75 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky.benchmarks;
+
+/**
+ * Sizes of the specification corpora benchmarked.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+public enum Corpus {
+    /**
+     * A handful of files, similar to the example project.
+     */
+    SMALL {
+        @Override
+        public CorpusGenerator generator() {
+            return new CorpusGenerator()
+                .files(4)
+                .implementationsPerSection(10);
+        }
+    },
+    /**
+     * A medium sized project of a thousand types.
+     */
+    MEDIUM {
+        @Override
+        public CorpusGenerator generator() {
+            return new CorpusGenerator()
+                .files(20)
+                .supertypeDepth(2)
+                .implementationsPerSection(48);
+        }
+    },
+    /**
+     * Ten thousand types.
+     */
+    HUGE {
+        @Override
+        public CorpusGenerator generator() {
+            return new CorpusGenerator()
+                .files(100)
+                .sectionsPerFile(2)
+                .abstractTypesPerSection(2)
+                .supertypeDepth(3)
+                .implementationsPerSection(44);
+        }
+    };
+
+    /**
+     * @return a generator of the corpus
+     */
+    public abstract CorpusGenerator generator();
+}
@@ -0,0 +1,306 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky.benchmarks;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates a corpus of specification files for scale testing. The same configuration and seed always generate the
+ * same corpus.
+ * <p>
+ * Each section declares chains of abstract types, each extending the previous type of the chain, and implementations
+ * extending the last type of a chain. Sections import a type with a default value and implementations declared by
+ * earlier files.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+public final class CorpusGenerator {
+    private static final String[] PROPERTY_TYPES = {
+        "int", "long", "double", "boolean", "String", "Integer", "Long", "List<String>", "Set<String>"
+    };
+    private long seed;
+    private int files = 10;
+    private int sectionsPerFile = 1;
+    private int importsPerSection = 2;
+    private int abstractTypesPerSection = 1;
+    private int supertypeDepth = 1;
+    private int implementationsPerSection = 10;
+    private int propertiesPerType = 4;
+    private double defaultRatio = 0.25D;
+    private double constraintRatio = 0.25D;
+
+    /**
+     * Set the seed of the random choices.
+     */
+    public CorpusGenerator seed(long newSeed) {
+        seed = newSeed;
+        return this;
+    }
+
+    /**
+     * Set the number of files.
+     */
+    public CorpusGenerator files(int count) {
+        files = positive(count, "file");
+        return this;
+    }
+
+    /**
+     * Set the number of sections in each file.
+     */
+    public CorpusGenerator sectionsPerFile(int count) {
+        sectionsPerFile = positive(count, "section");
+        return this;
+    }
+
+    /**
+     * Set the number of imports in each section. One import has a default value, the others import implementations
+     * declared by earlier files.
+     */
+    public CorpusGenerator importsPerSection(int count) {
+        importsPerSection = notNegative(count, "imports");
+        return this;
+    }
+
+    /**
+     * Set the number of chains of abstract types in each section.
+     */
+    public CorpusGenerator abstractTypesPerSection(int count) {
+        abstractTypesPerSection = notNegative(count, "abstract types");
+        return this;
+    }
+
+    /**
+     * Set the number of abstract types in each chain of supertypes.
+     */
+    public CorpusGenerator supertypeDepth(int depth) {
+        supertypeDepth = positive(depth, "supertype");
+        return this;
+    }
+
+    /**
+     * Set the number of implementations in each section.
+     */
+    public CorpusGenerator implementationsPerSection(int count) {
+        implementationsPerSection = notNegative(count, "implementations");
+        return this;
+    }
+
+    /**
+     * Set the number of properties declared by each type.
+     */
+    public CorpusGenerator propertiesPerType(int count) {
+        propertiesPerType = notNegative(count, "properties");
+        return this;
+    }
+
+    /**
+     * Set the proportion of properties with a default value.
+     */
+    public CorpusGenerator defaultRatio(double ratio) {
+        defaultRatio = ratio(ratio);
+        return this;
+    }
+
+    /**
+     * Set the proportion of properties with a constraint.
+     */
+    public CorpusGenerator constraintRatio(double ratio) {
+        constraintRatio = ratio(ratio);
+        return this;
+    }
+
+    /**
+     * @return the number of types declared by the corpus
+     */
+    public int getTypeCount() {
+        return files * sectionsPerFile * (abstractTypesPerSection * supertypeDepth + implementationsPerSection);
+    }
+
+    /**
+     * @return the content of each file of the corpus
+     */
+    public List<String> generate() {
+        final Random random = new Random(seed);
+        final List<String> implementations = new ArrayList<>();
+        final List<String> specs = new ArrayList<>(files);
+        for (int file = 0; file < files; file++) {
+            final List<String> fileImplementations = new ArrayList<>();
+            final StringBuilder spec = new StringBuilder();
+            for (int section = 0; section < sectionsPerFile; section++) {
+                appendSection(spec, random, file, section, implementations, fileImplementations);
+            }
+            implementations.addAll(fileImplementations);
+            specs.add(spec.toString());
+        }
+        return specs;
+    }
+
+    /**
+     * Write the files of the corpus to a directory.
+     * @return the files written
+     */
+    public List<Path> write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        final List<String> specs = generate();
+        final List<Path> paths = new ArrayList<>(specs.size());
+        for (int i = 0; i < specs.size(); i++) {
+            final Path path = directory.resolve("corpus" + i + ".spec");
+            Files.write(path, specs.get(i).getBytes(UTF_8));
+            paths.add(path);
+        }
+        return paths;
+    }
+
+    private void appendSection(
+            StringBuilder spec,
+            Random random,
+            int file,
+            int section,
+            List<String> earlierImplementations,
+            List<String> fileImplementations) {
+
+        final String packageName = "com.example.corpus.f" + file + ".s" + section;
+        final String prefix = file + "x" + section + "x";
+
+        if (section > 0) {
+            spec.append("section \"Section ").append(section).append("\"\n\n");
+        }
+        spec
+            .append("author \"Specky Corpus\"\n\n")
+            .append("package ").append(packageName).append("\n\n");
+
+        final List<String> extraTypes = new ArrayList<>();
+        if (importsPerSection > 0) {
+            spec
+                .append("imports\n")
+                .append("    java.time.Duration default Duration.ZERO\n");
+            extraTypes.add("Duration");
+            for (int i = 1; i < importsPerSection && !earlierImplementations.isEmpty(); i++) {
+                final String imported = earlierImplementations.get(random.nextInt(earlierImplementations.size()));
+                if (!extraTypes.contains(simpleName(imported))) {
+                    spec.append("    ").append(imported).append('\n');
+                    extraTypes.add(simpleName(imported));
+                }
+            }
+            spec.append('\n');
+        }
+
+        for (int chain = 0; chain < abstractTypesPerSection; chain++) {
+            for (int level = 0; level < supertypeDepth; level++) {
+                spec.append("type ").append(abstractName(prefix, chain, level));
+                if (level > 0) {
+                    spec.append(" : ").append(abstractName(prefix, chain, level - 1));
+                }
+                spec.append('\n');
+                appendProperties(spec, random, "a" + chain + "l" + level + "p", extraTypes);
+                spec.append('\n');
+            }
+        }
+
+        for (int i = 0; i < implementationsPerSection; i++) {
+            final boolean value = random.nextBoolean();
+            final String name = (value ? "Value" : "Bean") + prefix + i;
+            spec.append(value ? "value " : "bean ").append(name);
+            if (abstractTypesPerSection > 0) {
+                spec
+                    .append(" : ")
+                    .append(abstractName(prefix, random.nextInt(abstractTypesPerSection), supertypeDepth - 1));
+            }
+            spec.append('\n');
+            appendProperties(spec, random, "p", extraTypes);
+            spec
+                .append("    options\n")
+                .append(value ? "        immutable builder\n\n" : "        builder\n\n");
+            fileImplementations.add(packageName + "." + name);
+        }
+    }
+
+    private void appendProperties(StringBuilder spec, Random random, String namePrefix, List<String> extraTypes) {
+        if (propertiesPerType == 0) {
+            return;
+        }
+
+        spec.append("    properties\n");
+        for (int i = 0; i < propertiesPerType; i++) {
+            final int typeIndex = random.nextInt(PROPERTY_TYPES.length + extraTypes.size());
+            final String type = typeIndex < PROPERTY_TYPES.length ?
+                PROPERTY_TYPES[typeIndex] :
+                extraTypes.get(typeIndex - PROPERTY_TYPES.length);
+
+            spec.append("        ").append(type).append(' ').append(namePrefix).append(i);
+            if (isNumeric(type) && random.nextDouble() < defaultRatio) {
+                spec.append(" default ").append(random.nextInt(100));
+                if ("long".equals(type) || "Long".equals(type)) {
+                    spec.append('L');
+                }
+            }
+            if (isNumeric(type) && random.nextDouble() < constraintRatio) {
+                spec.append(" [constraint >= 0 & < ").append(100 + random.nextInt(100)).append(']');
+            }
+            spec.append('\n');
+        }
+    }
+
+    private static boolean isNumeric(String type) {
+        return "int".equals(type) || "long".equals(type) || "Integer".equals(type) || "Long".equals(type);
+    }
+
+    private static String abstractName(String prefix, int chain, int level) {
+        return "Abstract" + prefix + chain + "L" + level;
+    }
+
+    private static String simpleName(String qualifiedName) {
+        return qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+    }
+
+    private static int positive(int count, String name) {
+        if (count < 1) {
+            throw new IllegalArgumentException("At least one " + name + " is needed");
+        }
+        return count;
+    }
+
+    private static int notNegative(int count, String name) {
+        if (count < 0) {
+            throw new IllegalArgumentException("The number of " + name + " cannot be negative");
+        }
+        return count;
+    }
+
+    private static double ratio(double ratio) {
+        if (ratio < 0D || ratio > 1D) {
+            throw new IllegalArgumentException("The ratio must be between 0 and 1");
+        }
+        return ratio;
+    }
+}
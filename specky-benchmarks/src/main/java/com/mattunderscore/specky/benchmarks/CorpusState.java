@@ -0,0 +1,130 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky.benchmarks;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.reverseOrder;
+import static java.util.stream.Collectors.toList;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.mattunderscore.specky.context.file.FileContext;
+
+/**
+ * Benchmark state holding a corpus of specification files, both in memory and written to a temporary directory.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+@State(Scope.Benchmark)
+public class CorpusState {
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    private Corpus corpus;
+
+    private Path directory;
+    private final List<Path> files = new ArrayList<>();
+    private final List<String> specs = new ArrayList<>();
+
+    /**
+     * Write the corpus.
+     */
+    @Setup
+    public void writeCorpus() throws IOException {
+        directory = Files.createTempDirectory("specky-benchmark");
+        files.addAll(corpus.generator().write(directory.resolve("spec")));
+        for (final Path file : files) {
+            specs.add(new String(Files.readAllBytes(file), UTF_8));
+        }
+    }
+
+    /**
+     * Delete the corpus and any generated code.
+     */
+    @TearDown
+    public void deleteCorpus() throws IOException {
+        delete(directory);
+        files.clear();
+        specs.clear();
+    }
+
+    /**
+     * @return the content of the specification files
+     */
+    public List<String> getSpecs() {
+        return specs;
+    }
+
+    /**
+     * @return the specification files
+     */
+    public List<Path> getFiles() {
+        return files;
+    }
+
+    /**
+     * @return a directory to write generated code to
+     */
+    public Path getTargetDirectory() {
+        return directory.resolve("target");
+    }
+
+    /**
+     * @return new file contexts reading the specification files from memory
+     */
+    public List<FileContext> fileContexts() {
+        final List<FileContext> fileContexts = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            final FileContext fileContext = new FileContext();
+            fileContext.setFile(files.get(i));
+            fileContext.setAntlrStream(new ANTLRInputStream(specs.get(i)));
+            fileContexts.add(fileContext);
+        }
+        return fileContexts;
+    }
+
+    /**
+     * Delete a directory and everything in it.
+     */
+    /*package*/ static void delete(Path directory) throws IOException {
+        final List<Path> paths;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            paths = walk.sorted(reverseOrder()).collect(toList());
+        }
+        for (final Path path : paths) {
+            Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky.benchmarks;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.googlejavaformat.java.FormatterException;
+import com.mattunderscore.specky.IndentingSourceFormatter;
+import com.mattunderscore.specky.ParsingError;
+import com.mattunderscore.specky.SpeckyFileStreamingContext;
+import com.mattunderscore.specky.WriteSummary;
+
+/**
+ * Benchmark of the whole pipeline, from reading the specification files to writing the source code.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EndToEndBenchmark {
+    /**
+     * Run the pipeline one step at a time.
+     */
+    @Benchmark
+    public WriteSummary serial(CorpusState state) throws IOException, ParsingError, FormatterException {
+        final SpeckyFileStreamingContext streamingContext = new SpeckyFileStreamingContext();
+        state.getFiles().forEach(streamingContext::addFileToParse);
+        return streamingContext
+            .open()
+            .parse()
+            .generate()
+            .targetPath(state.getTargetDirectory())
+            .write();
+    }
+
+    /**
+     * Run the pipeline as configured by the Maven plugin.
+     */
+    @Benchmark
+    public WriteSummary concurrent(CorpusState state) throws IOException, ParsingError, FormatterException {
+        final SpeckyFileStreamingContext streamingContext = new SpeckyFileStreamingContext().openFilesLazily();
+        state.getFiles().forEach(streamingContext::addFileToParse);
+        return streamingContext
+            .open()
+            .parseConcurrently()
+            .parse()
+            .generateConcurrently()
+            .generate()
+            .targetPath(state.getTargetDirectory())
+            .writeConcurrently()
+            .skipUnchangedFiles()
+            .write();
+    }
+
+    /**
+     * Run the pipeline as configured by the Maven plugin, with the fast formatter.
+     */
+    @Benchmark
+    public WriteSummary concurrentFast(CorpusState state) throws IOException, ParsingError, FormatterException {
+        final SpeckyFileStreamingContext streamingContext = new SpeckyFileStreamingContext().openFilesLazily();
+        state.getFiles().forEach(streamingContext::addFileToParse);
+        return streamingContext
+            .open()
+            .parseConcurrently()
+            .parse()
+            .generateConcurrently()
+            .generate()
+            .targetPath(state.getTargetDirectory())
+            .formatter(new IndentingSourceFormatter())
+            .writeConcurrently()
+            .skipUnchangedFiles()
+            .write();
+    }
+}
@@ -0,0 +1,83 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky.benchmarks;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.googlejavaformat.java.FormatterException;
+import com.mattunderscore.specky.GoogleSourceFormatter;
+import com.mattunderscore.specky.IndentingSourceFormatter;
+import com.mattunderscore.specky.SourceFormatter;
+import com.squareup.javapoet.JavaFile;
+
+/**
+ * Benchmark of formatting the generated source code, with each of the formatters available when writing it.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FormatBenchmark {
+    private final SourceFormatter googleFormatter = new GoogleSourceFormatter();
+    private final SourceFormatter fastFormatter = new IndentingSourceFormatter();
+
+    /**
+     * Format each generated file with google-java-format.
+     */
+    @Benchmark
+    public void format(ModelState state, Blackhole blackhole) throws FormatterException {
+        format(googleFormatter, state, blackhole);
+    }
+
+    /**
+     * Normalise the indentation of each generated file.
+     */
+    @Benchmark
+    public void formatFast(ModelState state, Blackhole blackhole) throws FormatterException {
+        format(fastFormatter, state, blackhole);
+    }
+
+    private static void format(
+            SourceFormatter formatter,
+            ModelState state,
+            Blackhole blackhole) throws FormatterException {
+
+        for (final JavaFile javaFile : state.getJavaFiles()) {
+            blackhole.consume(formatter.format(javaFile.toString()));
+        }
+    }
+}
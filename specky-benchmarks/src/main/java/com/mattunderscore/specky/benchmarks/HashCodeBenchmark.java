@@ -0,0 +1,227 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky.benchmarks;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark comparing the hash codes generated before and after unrolling. The value types are written the way they
+ * are generated, one with {@link Objects#hash(Object...)} and one with the unrolled combination. They are used to
+ * compute hash codes directly and as the keys of a {@link HashMap} looked up by equal instances.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HashCodeBenchmark {
+    private static final int KEYS = 1024;
+
+    /**
+     * Compute the hash code of each key with {@link Objects#hash(Object...)}.
+     */
+    @Benchmark
+    public void objectsHash(HashCodeState state, Blackhole blackhole) {
+        for (final ObjectsHashValue key : state.objectsHashKeys) {
+            blackhole.consume(key.hashCode());
+        }
+    }
+
+    /**
+     * Compute the hash code of each key with the unrolled combination.
+     */
+    @Benchmark
+    public void unrolledHash(HashCodeState state, Blackhole blackhole) {
+        for (final UnrolledHashValue key : state.unrolledHashKeys) {
+            blackhole.consume(key.hashCode());
+        }
+    }
+
+    /**
+     * Look up each key in a map, hashing with {@link Objects#hash(Object...)}.
+     */
+    @Benchmark
+    public void objectsHashLookup(HashCodeState state, Blackhole blackhole) {
+        for (final ObjectsHashValue key : state.objectsHashLookups) {
+            blackhole.consume(state.objectsHashMap.get(key));
+        }
+    }
+
+    /**
+     * Look up each key in a map, hashing with the unrolled combination.
+     */
+    @Benchmark
+    public void unrolledHashLookup(HashCodeState state, Blackhole blackhole) {
+        for (final UnrolledHashValue key : state.unrolledHashLookups) {
+            blackhole.consume(state.unrolledHashMap.get(key));
+        }
+    }
+
+    /**
+     * The keys and the maps. Each key is looked up with an equal instance so the hash code is not cached by identity.
+     */
+    @State(Scope.Benchmark)
+    public static class HashCodeState {
+        private final ObjectsHashValue[] objectsHashKeys = new ObjectsHashValue[KEYS];
+        private final ObjectsHashValue[] objectsHashLookups = new ObjectsHashValue[KEYS];
+        private final UnrolledHashValue[] unrolledHashKeys = new UnrolledHashValue[KEYS];
+        private final UnrolledHashValue[] unrolledHashLookups = new UnrolledHashValue[KEYS];
+        private final Map<ObjectsHashValue, Integer> objectsHashMap = new HashMap<>();
+        private final Map<UnrolledHashValue, Integer> unrolledHashMap = new HashMap<>();
+
+        /**
+         * Create the keys and check both hash codes are the same.
+         */
+        @Setup
+        public void createKeys() {
+            final Random random = new Random(1L);
+            for (int i = 0; i < KEYS; i++) {
+                final int id = random.nextInt();
+                final long timestamp = random.nextLong();
+                final double amount = random.nextDouble();
+                final boolean active = random.nextBoolean();
+                final String name = "name" + random.nextInt(100);
+                final Integer code = random.nextBoolean() ? random.nextInt(1000) : null;
+
+                objectsHashKeys[i] = new ObjectsHashValue(id, timestamp, amount, active, name, code);
+                objectsHashLookups[i] = new ObjectsHashValue(id, timestamp, amount, active, new String(name), code);
+                unrolledHashKeys[i] = new UnrolledHashValue(id, timestamp, amount, active, name, code);
+                unrolledHashLookups[i] = new UnrolledHashValue(id, timestamp, amount, active, new String(name), code);
+                objectsHashMap.put(objectsHashKeys[i], i);
+                unrolledHashMap.put(unrolledHashKeys[i], i);
+
+                if (objectsHashKeys[i].hashCode() != unrolledHashKeys[i].hashCode()) {
+                    throw new IllegalStateException("The unrolled hash code is different to Objects.hash");
+                }
+            }
+        }
+    }
+
+    /**
+     * Value type with the hash code previously generated.
+     */
+    private static final class ObjectsHashValue {
+        private final int id;
+        private final long timestamp;
+        private final double amount;
+        private final boolean active;
+        private final String name;
+        private final Integer code;
+
+        ObjectsHashValue(int id, long timestamp, double amount, boolean active, String name, Integer code) {
+            this.id = id;
+            this.timestamp = timestamp;
+            this.amount = amount;
+            this.active = active;
+            this.name = name;
+            this.code = code;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other == this) {
+                return true;
+            }
+            else if (other == null || !this.getClass().equals(other.getClass())) {
+                return false;
+            }
+            final ObjectsHashValue that = (ObjectsHashValue) other;
+            return this.id == that.id && this.timestamp == that.timestamp && this.amount == that.amount &&
+                this.active == that.active && this.name.equals(that.name) &&
+                (this.code == null && that.code == null || (this.code != null && this.code.equals(that.code)));
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, timestamp, amount, active, name, code);
+        }
+    }
+
+    /**
+     * Value type with the hash code now generated.
+     */
+    private static final class UnrolledHashValue {
+        private final int id;
+        private final long timestamp;
+        private final double amount;
+        private final boolean active;
+        private final String name;
+        private final Integer code;
+
+        UnrolledHashValue(int id, long timestamp, double amount, boolean active, String name, Integer code) {
+            this.id = id;
+            this.timestamp = timestamp;
+            this.amount = amount;
+            this.active = active;
+            this.name = name;
+            this.code = code;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other == this) {
+                return true;
+            }
+            else if (other == null || !this.getClass().equals(other.getClass())) {
+                return false;
+            }
+            final UnrolledHashValue that = (UnrolledHashValue) other;
+            return this.id == that.id && this.timestamp == that.timestamp && this.amount == that.amount &&
+                this.active == that.active && this.name.equals(that.name) &&
+                (this.code == null && that.code == null || (this.code != null && this.code.equals(that.code)));
+        }
+
+        @Override
+        public int hashCode() {
+            int result = 1;
+            result = 31 * result + Integer.hashCode(this.id);
+            result = 31 * result + Long.hashCode(this.timestamp);
+            result = 31 * result + Double.hashCode(this.amount);
+            result = 31 * result + Boolean.hashCode(this.active);
+            result = 31 * result + (this.name == null ? 0 : this.name.hashCode());
+            result = 31 * result + (this.code == null ? 0 : this.code.hashCode());
+            return result;
+        }
+    }
+}
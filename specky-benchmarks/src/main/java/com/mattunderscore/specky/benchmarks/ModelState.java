@@ -0,0 +1,77 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky.benchmarks;
+
+import static com.mattunderscore.specky.error.listeners.ReportingSemanticErrorListener.reportTo;
+import static com.mattunderscore.specky.error.listeners.ReportingSyntaxErrorListener.reportSyntaxErrorsTo;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.mattunderscore.specky.BenchmarkContexts;
+import com.mattunderscore.specky.ModelGenerator;
+import com.mattunderscore.specky.model.SpecDesc;
+import com.squareup.javapoet.JavaFile;
+
+/**
+ * Benchmark state holding the model of a corpus and the Java files generated from it.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+@State(Scope.Benchmark)
+public class ModelState {
+    private SpecDesc spec;
+    private List<JavaFile> javaFiles;
+
+    /**
+     * Build the model and generate the Java files.
+     */
+    @Setup
+    public void buildModel(CorpusState corpus) {
+        spec = new ModelGenerator(reportTo(System.err), reportSyntaxErrorsTo(System.err))
+            .build(corpus.fileContexts());
+        if (spec == null) {
+            throw new IllegalStateException("The corpus is not valid");
+        }
+        javaFiles = BenchmarkContexts.generate(spec);
+    }
+
+    /**
+     * @return the model
+     */
+    public SpecDesc getSpec() {
+        return spec;
+    }
+
+    /**
+     * @return the generated Java files
+     */
+    public List<JavaFile> getJavaFiles() {
+        return javaFiles;
+    }
+}
@@ -0,0 +1,136 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky.benchmarks;
+
+import static com.mattunderscore.specky.error.listeners.ReportingSemanticErrorListener.reportTo;
+import static com.mattunderscore.specky.error.listeners.ReportingSyntaxErrorListener.reportSyntaxErrorsTo;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mattunderscore.specky.BenchmarkContexts;
+import com.mattunderscore.specky.ModelGenerator;
+import com.mattunderscore.specky.context.file.FileContext;
+import com.mattunderscore.specky.model.SpecDesc;
+import com.squareup.javapoet.JavaFile;
+
+/**
+ * Benchmark of how building the model and generating the types grows with the number of types. Run with the GC
+ * profiler to see how the allocation grows too.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ScaleBenchmark {
+    /**
+     * Benchmark state holding a generated corpus of specification files.
+     */
+    @State(Scope.Benchmark)
+    public static class ScaleState {
+        @Param({"1000", "2500", "5000", "10000"})
+        private int types;
+
+        private List<String> specs;
+
+        /**
+         * Generate the corpus.
+         */
+        @Setup
+        public void generateCorpus() {
+            specs = scaleCorpus(types).generate();
+        }
+
+        /**
+         * @return new file contexts reading the specification files from memory
+         */
+        public List<FileContext> fileContexts() {
+            return ScaleBenchmark.fileContexts(specs);
+        }
+    }
+
+    /**
+     * Build the model.
+     */
+    @Benchmark
+    public SpecDesc build(ScaleState state) {
+        return new ModelGenerator(reportTo(System.err), reportSyntaxErrorsTo(System.err))
+            .build(state.fileContexts());
+    }
+
+    /**
+     * Build the model and generate the types.
+     */
+    @Benchmark
+    public List<JavaFile> generate(ScaleState state) {
+        return BenchmarkContexts.generate(build(state));
+    }
+
+    /**
+     * @return a generator of a corpus of files of a hundred types each, with deep supertype chains
+     */
+    /*package*/ static CorpusGenerator scaleCorpus(int types) {
+        return new CorpusGenerator()
+            .seed(types)
+            .files(Math.max(1, types / 100))
+            .sectionsPerFile(2)
+            .abstractTypesPerSection(2)
+            .supertypeDepth(3)
+            .implementationsPerSection(44)
+            .importsPerSection(3);
+    }
+
+    /**
+     * @return new file contexts reading the specification files from memory
+     */
+    /*package*/ static List<FileContext> fileContexts(List<String> specs) {
+        final List<FileContext> fileContexts = new ArrayList<>(specs.size());
+        for (int i = 0; i < specs.size(); i++) {
+            final FileContext fileContext = new FileContext();
+            fileContext.setFile(Paths.get("corpus" + i + ".spec"));
+            fileContext.setAntlrStream(new ANTLRInputStream(specs.get(i)));
+            fileContexts.add(fileContext);
+        }
+        return fileContexts;
+    }
+}
@@ -0,0 +1,88 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.specky.benchmarks;
+
+import static com.mattunderscore.specky.error.listeners.ReportingSemanticErrorListener.reportTo;
+import static com.mattunderscore.specky.error.listeners.ReportingSyntaxErrorListener.reportSyntaxErrorsTo;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+
+import com.mattunderscore.specky.BenchmarkContexts;
+import com.mattunderscore.specky.ModelGenerator;
+import com.mattunderscore.specky.model.SpecDesc;
+import com.squareup.javapoet.JavaFile;
+
+/**
+ * Stress test reporting how the time to build the model and generate the types, and the heap retained by each, grow
+ * with the number of types. Each argument is a number of types, by default ten thousand types are reached in four
+ * steps.
+ *
+ * @author Matt Champion 16/10/2017
+ */
+public final class ScaleReport {
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    private ScaleReport() {
+    }
+
+    /**
+     * Entry point.
+     */
+    public static void main(String[] args) {
+        final String[] sizes = args.length == 0 ? new String[] {"1000", "2500", "5000", "10000"} : args;
+
+        System.out.println("types\tfiles\tbuild ms\tmodel heap KiB\tgenerate ms\tgenerated heap KiB");
+        for (final String size : sizes) {
+            final List<String> specs = ScaleBenchmark.scaleCorpus(Integer.parseInt(size)).generate();
+
+            final long baseline = usedHeap();
+            final long buildStart = System.nanoTime();
+            final SpecDesc spec = new ModelGenerator(reportTo(System.err), reportSyntaxErrorsTo(System.err))
+                .build(ScaleBenchmark.fileContexts(specs));
+            final long buildTime = System.nanoTime() - buildStart;
+            final long modelHeap = usedHeap() - baseline;
+
+            final long generateStart = System.nanoTime();
+            final List<JavaFile> javaFiles = BenchmarkContexts.generate(spec);
+            final long generateTime = System.nanoTime() - generateStart;
+            final long generatedHeap = usedHeap() - baseline;
+
+            System.out.println(
+                javaFiles.size() + "\t" +
+                specs.size() + "\t" +
+                buildTime / 1000000L + "\t" +
+                modelHeap / 1024L + "\t" +
+                generateTime / 1000000L + "\t" +
+                generatedHeap / 1024L);
+        }
+    }
+
+    private static long usedHeap() {
+        MEMORY.gc();
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+}
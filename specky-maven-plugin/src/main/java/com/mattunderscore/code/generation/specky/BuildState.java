@@ -0,0 +1,219 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.code.generation.specky;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * The inputs and outputs of a build. Persisted after a successful build so that later builds with the same inputs
+ * can be skipped, as long as the outputs of the earlier build are still present and unchanged.
+ *
+ * @author Matt Champion on 15/10/2017
+ */
+/*package*/ final class BuildState {
+    private static final String PLUGIN_VERSION = "plugin.version";
+    private static final String CONFIGURATION = "configuration";
+    private static final String SPEC_PREFIX = "spec.";
+    private static final String OUTPUT_PREFIX = "output.";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private final Map<String, String> entries;
+
+    private BuildState(Map<String, String> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * @return the state of the current build
+     */
+    static BuildState create(
+            String pluginVersion,
+            String configuration,
+            Path basePath,
+            String[] files) throws IOException {
+
+        final MessageDigest digest = sha256();
+        final Map<String, String> entries = new TreeMap<>();
+        entries.put(PLUGIN_VERSION, String.valueOf(pluginVersion));
+        entries.put(CONFIGURATION, configuration);
+        for (final String file : files) {
+            entries.put(SPEC_PREFIX + file, hash(digest, basePath.resolve(file)));
+        }
+        return new BuildState(entries);
+    }
+
+    /**
+     * @return the state with the outputs of the build added
+     */
+    BuildState withOutputs(Path targetPath, Collection<Path> outputs) throws IOException {
+        final MessageDigest digest = sha256();
+        final Map<String, String> newEntries = new TreeMap<>(entries);
+        for (final Path output : outputs) {
+            newEntries.put(OUTPUT_PREFIX + toKey(targetPath, output), hash(digest, output));
+        }
+        return new BuildState(newEntries);
+    }
+
+    /**
+     * @return if this state of an earlier build has the same inputs as the current build and every output of the
+     * earlier build is still present and unchanged
+     */
+    boolean isUpToDate(BuildState current, Path targetPath) {
+        if (!getInputs().equals(current.getInputs())) {
+            return false;
+        }
+
+        final Map<String, String> outputs = getOutputs();
+        if (outputs.isEmpty()) {
+            // Earlier builds always have outputs, state without them was written before they were recorded
+            return false;
+        }
+
+        final MessageDigest digest = sha256();
+        for (final Map.Entry<String, String> output : outputs.entrySet()) {
+            final Path outputPath = targetPath.resolve(output.getKey());
+            try {
+                if (!Files.isRegularFile(outputPath) || !output.getValue().equals(hash(digest, outputPath))) {
+                    return false;
+                }
+            }
+            catch (IOException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the state of the last successful build, empty if there is no readable state
+     */
+    static Optional<BuildState> read(Path path) {
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+
+        final Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            properties.load(inputStream);
+        }
+        catch (IOException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+
+        final Map<String, String> entries = new TreeMap<>();
+        properties.stringPropertyNames().forEach(name -> entries.put(name, properties.getProperty(name)));
+        return Optional.of(new BuildState(entries));
+    }
+
+    /**
+     * Persist the state.
+     */
+    void write(Path path) throws IOException {
+        final Properties properties = new Properties();
+        properties.putAll(entries);
+        Files.createDirectories(path.getParent());
+        try (OutputStream outputStream = Files.newOutputStream(path)) {
+            properties.store(outputStream, "Specky build state");
+        }
+    }
+
+    /**
+     * Delete the persisted state.
+     */
+    static void delete(Path path) throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    private Map<String, String> getInputs() {
+        final Map<String, String> inputs = new TreeMap<>(entries);
+        inputs.keySet().removeIf(key -> key.startsWith(OUTPUT_PREFIX));
+        return inputs;
+    }
+
+    private Map<String, String> getOutputs() {
+        final Map<String, String> outputs = new TreeMap<>();
+        entries.forEach((key, value) -> {
+            if (key.startsWith(OUTPUT_PREFIX)) {
+                outputs.put(key.substring(OUTPUT_PREFIX.length()), value);
+            }
+        });
+        return outputs;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        else if (o == null || o.getClass() != getClass()) {
+            return false;
+        }
+
+        final BuildState that = (BuildState) o;
+        return entries.equals(that.entries);
+    }
+
+    @Override
+    public int hashCode() {
+        return entries.hashCode();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String hash(MessageDigest digest, Path file) throws IOException {
+        digest.reset();
+        return toHex(digest.digest(Files.readAllBytes(file)));
+    }
+
+    private static String toKey(Path targetPath, Path output) {
+        return targetPath.relativize(output).toString().replace(output.getFileSystem().getSeparator(), "/");
+    }
+
+    private static String toHex(byte[] bytes) {
+        final char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+}
@@ -41,10 +41,26 @@ import org.apache.maven.shared.model.fileset.FileSet;
 import org.apache.maven.shared.model.fileset.util.FileSetManager;
 
 import com.google.googlejavaformat.java.FormatterException;
+import com.mattunderscore.specky.DirectoryFileModelCache;
+import com.mattunderscore.specky.DirectoryFormattedSourceCache;
+import com.mattunderscore.specky.GoogleSourceFormatter;
+import com.mattunderscore.specky.IndentingSourceFormatter;
+import com.mattunderscore.specky.ModelGenerator;
 import com.mattunderscore.specky.ParsingError;
+import com.mattunderscore.specky.PipelineMetrics;
+import com.mattunderscore.specky.PredictionCounters;
+import com.mattunderscore.specky.SourceFormatter;
 import com.mattunderscore.specky.SpeckyFileStreamingContext;
 import com.mattunderscore.specky.SpeckyGeneratingContext;
+import com.mattunderscore.specky.SpeckyParsingContext;
 import com.mattunderscore.specky.SpeckyWritingContext;
+import com.mattunderscore.specky.WriteSummary;
+import com.mattunderscore.specky.generator.Generator;
+import com.mattunderscore.specky.javapoet.javadoc.JavaDocBuilder;
+import com.mattunderscore.specky.model.SpecDesc;
+import com.mattunderscore.specky.model.generator.scope.Scope;
+import com.mattunderscore.specky.parser.SpeckyLexer;
+import com.mattunderscore.specky.proposition.Normaliser;
 
 /**
  * @goal generate
@@ -67,9 +83,103 @@ public final class GenerateMojo extends AbstractMojo {
      */
     private File target;
 
+    /**
+     * The number of threads used to parse the specification files. Defaults to the number of available processors.
+     * @parameter
+     */
+    private Integer parseThreads;
+
+    /**
+     * The number of threads used to generate the types. If not set the types are generated one at a time.
+     * @parameter
+     */
+    private Integer generateThreads;
+
+    /**
+     * The number of threads used to format and write the generated files. Defaults to the number of available
+     * processors.
+     * @parameter
+     */
+    private Integer writeThreads;
+
+    /**
+     * Leave generated files that have not changed untouched.
+     * @parameter default-value="true"
+     */
+    private boolean skipUnchanged;
+
+    /**
+     * Delete Java files in the target directory that are no longer generated.
+     * @parameter default-value="false"
+     */
+    private boolean deleteStale;
+
+    /**
+     * The formatter applied to the generated source code. Either google, to format with google-java-format, or fast,
+     * to only normalise the indentation of the generated code.
+     * @parameter default-value="google"
+     */
+    private String formatter;
+
+    /**
+     * Skip generation when the specification files, configuration and generator are unchanged since the last
+     * successful build and the files it generated are still present and unchanged. When anything has changed every
+     * type is generated again, the caches only avoid parsing unchanged specification files and formatting unchanged
+     * source code. The generator is identified by the plugin version, combined with a hash of its code for snapshot
+     * versions.
+     * @parameter default-value="true"
+     */
+    private boolean incremental;
+
+    /**
+     * The file the state of the last successful build is kept in.
+     * @parameter default-value="${project.build.directory}/specky/build-state.properties"
+     */
+    private File buildStateFile;
+
+    /**
+     * The directory the models of the specification files are cached in. Unchanged files are not parsed again.
+     * @parameter default-value="${project.build.directory}/specky/model-cache"
+     */
+    private File modelCacheDirectory;
+
+    /**
+     * The directory the formatted source code of generated files is cached in. Unchanged files are not formatted
+     * again.
+     * @parameter default-value="${project.build.directory}/specky/formatted-source-cache"
+     */
+    private File formattedSourceCacheDirectory;
+
+    /**
+     * The maximum size of the formatted source code cache in megabytes. The least recently used files are evicted
+     * first.
+     * @parameter default-value="64"
+     */
+    private int formattedSourceCacheSize;
+
+    /**
+     * The level the time and allocation of each phase of generation is logged at, one of debug, info or none.
+     * @parameter default-value="debug"
+     */
+    private String metricsLogLevel;
+
+    /**
+     * The number of the slowest steps for single files and types included in the logged metrics.
+     * @parameter default-value="10"
+     */
+    private int slowestItems;
+
+    /**
+     * @parameter default-value="${plugin.version}"
+     * @readonly
+     */
+    private String pluginVersion;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
         final FileSet currentFileset = getFileSet();
+        final SourceFormatter sourceFormatter = getFormatter();
+        final String generatorVersion = getGeneratorVersion();
 
         final FileSetManager fileSetManager = new FileSetManager(getLog(), true);
         final String[] files = fileSetManager.getIncludedFiles(currentFileset);
@@ -92,16 +202,58 @@ public final class GenerateMojo extends AbstractMojo {
         }
 
         final Path basePath = Paths.get(currentFileset.getDirectory());
-        final SpeckyFileStreamingContext streamingContext = new SpeckyFileStreamingContext();
+        final Path buildStatePath = buildStateFile.toPath();
+        final BuildState buildState;
+        try {
+            buildState = BuildState.create(
+                generatorVersion,
+                getConfiguration(currentFileset, targetPath),
+                basePath,
+                files);
+            final boolean upToDate = BuildState
+                .read(buildStatePath)
+                .filter(previousState -> previousState.isUpToDate(buildState, targetPath))
+                .isPresent();
+            if (incremental && upToDate) {
+                getLog().info("Specification files and generated files are unchanged, skipping generation");
+                project.addCompileSourceRoot(targetPath.toString());
+                return;
+            }
+            BuildState.delete(buildStatePath);
+        }
+        catch (IOException e) {
+            throw new MojoFailureException("Failed to read specification files", e);
+        }
+
+        final PipelineMetrics metrics = isMetricsLogged() ? new PipelineMetrics() : PipelineMetrics.NONE;
+        final SpeckyFileStreamingContext streamingContext = new SpeckyFileStreamingContext()
+            .openFilesLazily()
+            .metrics(metrics);
         Stream.of(files)
             .map(basePath::resolve)
             .forEach(streamingContext::addFileToParse);
 
+        final PredictionCounters predictionCounters = new PredictionCounters();
+        final DirectoryFileModelCache fileModelCache =
+            new DirectoryFileModelCache(modelCacheDirectory.toPath(), generatorVersion);
         final SpeckyGeneratingContext generatingContext;
         try {
-            generatingContext = streamingContext
-                .open()
+            final SpeckyParsingContext parsingContext = streamingContext.open();
+            if (parseThreads == null) {
+                parsingContext.parseConcurrently();
+            }
+            else {
+                parsingContext.parseConcurrently(parseThreads);
+            }
+            if (incremental) {
+                parsingContext.fileModelCache(fileModelCache);
+            }
+            generatingContext = parsingContext
+                .predictionCounters(predictionCounters)
                 .parse();
+            if (incremental) {
+                fileModelCache.deleteUnusedEntries();
+            }
         }
         catch (IOException e) {
             throw new MojoFailureException("Failed to process specification files", e);
@@ -109,13 +261,46 @@ public final class GenerateMojo extends AbstractMojo {
         catch (ParsingError e) {
             throw new MojoFailureException("Failed to parse specification files", e);
         }
+        getLog().debug("Parsed specification files: " + predictionCounters);
+        getLog().debug("Types affected by the parsed specification files: " +
+            generatingContext.getAffectedTypes().size());
+
+        if (generateThreads != null) {
+            generatingContext.generateConcurrently(generateThreads);
+        }
 
         final SpeckyWritingContext speckyWritingContext = generatingContext
             .generate()
-            .targetPath(targetPath);
+            .targetPath(targetPath)
+            .formatter(sourceFormatter);
+        if (writeThreads == null) {
+            speckyWritingContext.writeConcurrently();
+        }
+        else {
+            speckyWritingContext.writeConcurrently(writeThreads);
+        }
+        if (skipUnchanged) {
+            speckyWritingContext.skipUnchangedFiles();
+        }
+        if (deleteStale) {
+            speckyWritingContext.deleteStaleFiles();
+        }
+        final DirectoryFormattedSourceCache formattedSourceCache = new DirectoryFormattedSourceCache(
+            formattedSourceCacheDirectory.toPath(),
+            generatorVersion,
+            formattedSourceCacheSize * 1024L * 1024L);
+        if (incremental) {
+            speckyWritingContext.formattedSourceCache(formattedSourceCache);
+        }
 
         try {
-            speckyWritingContext.write();
+            final WriteSummary summary = speckyWritingContext.write();
+            getLog().info("Generated source code: " + summary);
+            getLog().debug("Formatted source cache: " + formattedSourceCache);
+            logMetrics(metrics);
+            buildState
+                .withOutputs(targetPath, summary.getFiles())
+                .write(buildStatePath);
         }
         catch (IOException | FormatterException e) {
             throw new MojoFailureException("Failed to write generated source code", e);
@@ -124,6 +309,66 @@ public final class GenerateMojo extends AbstractMojo {
         project.addCompileSourceRoot(targetPath.toString());
     }
 
+    private boolean isMetricsLogged() {
+        return "info".equals(metricsLogLevel) && getLog().isInfoEnabled() ||
+            "debug".equals(metricsLogLevel) && getLog().isDebugEnabled();
+    }
+
+    private void logMetrics(PipelineMetrics metrics) {
+        if (!isMetricsLogged()) {
+            return;
+        }
+
+        for (final String line : metrics.report(slowestItems).split("\n")) {
+            if ("info".equals(metricsLogLevel)) {
+                getLog().info(line);
+            }
+            else {
+                getLog().debug(line);
+            }
+        }
+    }
+
+    private String getGeneratorVersion() throws MojoExecutionException {
+        try {
+            return GeneratorVersion.of(
+                pluginVersion,
+                GenerateMojo.class,
+                SpeckyGeneratingContext.class,
+                Generator.class,
+                ModelGenerator.class,
+                SpeckyLexer.class,
+                Normaliser.class,
+                Scope.class,
+                SpecDesc.class,
+                JavaDocBuilder.class);
+        }
+        catch (IOException e) {
+            throw new MojoExecutionException("Failed to identify the version of the generator", e);
+        }
+    }
+
+    private String getConfiguration(FileSet currentFileset, Path targetPath) {
+        return "target=" + targetPath +
+            ";directory=" + currentFileset.getDirectory() +
+            ";includes=" + currentFileset.getIncludes() +
+            ";excludes=" + currentFileset.getExcludes() +
+            ";deleteStale=" + deleteStale +
+            ";formatter=" + formatter;
+    }
+
+    private SourceFormatter getFormatter() throws MojoExecutionException {
+        if ("google".equals(formatter)) {
+            return new GoogleSourceFormatter();
+        }
+        else if ("fast".equals(formatter)) {
+            return new IndentingSourceFormatter();
+        }
+        else {
+            throw new MojoExecutionException("Unknown formatter " + formatter + ", expected google or fast");
+        }
+    }
+
     private FileSet getFileSet() {
         if (fileset != null) {
             return fileset;
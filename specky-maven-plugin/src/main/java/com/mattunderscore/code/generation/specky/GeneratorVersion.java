@@ -0,0 +1,117 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.code.generation.specky;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * The version of the generator, used to salt the build state and caches. A snapshot version does not change when the
+ * code of the generator changes so the code of a snapshot is hashed and included in the version.
+ *
+ * @author Matt Champion on 18/10/2017
+ */
+/*package*/ final class GeneratorVersion {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private GeneratorVersion() {
+    }
+
+    /**
+     * @param pluginVersion the version of the plugin
+     * @param classes a class from each of the modules of the generator
+     * @return the version of the generator
+     * @throws IOException if the code of a snapshot cannot be read
+     */
+    static String of(String pluginVersion, Class<?>... classes) throws IOException {
+        if (pluginVersion != null && !pluginVersion.endsWith("-SNAPSHOT")) {
+            return pluginVersion;
+        }
+
+        final Set<Path> codeSources = new TreeSet<>();
+        for (final Class<?> type : classes) {
+            final CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+            if (codeSource == null) {
+                throw new IOException("The code of " + type.getName() + " cannot be located");
+            }
+            try {
+                codeSources.add(Paths.get(codeSource.getLocation().toURI()));
+            }
+            catch (URISyntaxException | IllegalArgumentException e) {
+                throw new IOException("The code of " + type.getName() + " cannot be located", e);
+            }
+        }
+
+        final MessageDigest digest = sha256();
+        for (final Path codeSource : codeSources) {
+            if (Files.isDirectory(codeSource)) {
+                // Classes of a module built in the same reactor
+                final List<Path> files;
+                try (Stream<Path> paths = Files.walk(codeSource)) {
+                    files = paths.filter(Files::isRegularFile).sorted().collect(toList());
+                }
+                for (final Path file : files) {
+                    digest.update(codeSource.relativize(file).toString().getBytes(UTF_8));
+                    digest.update(Files.readAllBytes(file));
+                }
+            }
+            else {
+                digest.update(Files.readAllBytes(codeSource));
+            }
+        }
+        return pluginVersion + "-" + toHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        final char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,141 @@
+/* Copyright © 2017 Matthew Champion All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+ * Neither the name of mattunderscore.com nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL MATTHEW CHAMPION BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. */
+
+package com.mattunderscore.code.generation.specky;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link BuildState}.
+ *
+ * @author Matt Champion on 16/10/2017
+ */
+public final class BuildStateTest {
+    private static final String[] FILES = new String[] { "a.spec" };
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private Path specs;
+    private Path target;
+    private Path output;
+    private Path stateFile;
+
+    @Before
+    public void setUp() throws IOException {
+        specs = folder.newFolder("specs").toPath();
+        target = folder.newFolder("target").toPath();
+        stateFile = folder.getRoot().toPath().resolve("state").resolve("build-state.properties");
+        Files.write(specs.resolve("a.spec"), "package com.example\n".getBytes(UTF_8));
+        Files.createDirectories(target.resolve("com/example"));
+        output = target.resolve("com/example/A.java");
+        Files.write(output, "class A {}\n".getBytes(UTF_8));
+
+        BuildState
+            .create("1.0", "configuration", specs, FILES)
+            .withOutputs(target, singletonList(output))
+            .write(stateFile);
+    }
+
+    @Test
+    public void sameInputsAreUpToDate() throws IOException {
+        assertTrue(isUpToDate(BuildState.create("1.0", "configuration", specs, FILES)));
+    }
+
+    @Test
+    public void changedSpecIsNotUpToDate() throws IOException {
+        Files.write(specs.resolve("a.spec"), "package com.example.other\n".getBytes(UTF_8));
+
+        assertFalse(isUpToDate(BuildState.create("1.0", "configuration", specs, FILES)));
+    }
+
+    @Test
+    public void missingOutputIsNotUpToDate() throws IOException {
+        Files.delete(output);
+
+        assertFalse(isUpToDate(BuildState.create("1.0", "configuration", specs, FILES)));
+    }
+
+    @Test
+    public void changedOutputIsNotUpToDate() throws IOException {
+        Files.write(output, "class A { }\n".getBytes(UTF_8));
+
+        assertFalse(isUpToDate(BuildState.create("1.0", "configuration", specs, FILES)));
+    }
+
+    @Test
+    public void changedConfigurationIsNotUpToDate() throws IOException {
+        assertFalse(isUpToDate(BuildState.create("1.0", "other configuration", specs, FILES)));
+    }
+
+    @Test
+    public void changedVersionIsNotUpToDate() throws IOException {
+        assertFalse(isUpToDate(BuildState.create("1.1", "configuration", specs, FILES)));
+    }
+
+    @Test
+    public void stateWithoutOutputsIsNotUpToDate() throws IOException {
+        final BuildState current = BuildState.create("1.0", "configuration", specs, FILES);
+        current.write(stateFile);
+
+        assertFalse(isUpToDate(current));
+    }
+
+    @Test
+    public void missingStateIsEmpty() throws IOException {
+        BuildState.delete(stateFile);
+
+        assertEquals(Optional.empty(), BuildState.read(stateFile));
+    }
+
+    @Test
+    public void readWrittenState() throws IOException {
+        final BuildState state = BuildState
+            .create("1.0", "configuration", specs, FILES)
+            .withOutputs(target, singletonList(output));
+
+        assertEquals(Optional.of(state), BuildState.read(stateFile));
+    }
+
+    private boolean isUpToDate(BuildState current) {
+        return BuildState
+            .read(stateFile)
+            .filter(previous -> previous.isUpToDate(current, target))
+            .isPresent();
+    }
+}
@@ -48,6 +48,8 @@ type ImplementationDesc : TypeDesc "Description of an implementation."
     properties
         ConstructionMethod constructionMethod "Construction method of the type."
         boolean withModification "If it has methods that return a modified version."
+        boolean cachedHash "If the hash code is cached after it is first computed."
+        boolean cachedString "If the string representation is cached after it is first computed."
 
 value ValueDesc : ImplementationDesc "Description of a value type."
     licence BSD3Clause